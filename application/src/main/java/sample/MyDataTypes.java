@@ -0,0 +1,31 @@
+package sample;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.DayOfWeek;
+import java.util.Date;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Created by sakura on 2016/11/20.
+ */
+@Data
+public class MyDataTypes {
+    private char c;
+    private Character c2;
+    private double d;
+    private Float f;
+    private short s;
+    private Byte b;
+    private BigDecimal decimal;
+    private BigInteger integer;
+    private UUID uuid;
+    private Optional<String> optional;
+    private DayOfWeek dayOfWeek;
+    private int[] ints;
+    private String[] strings;
+    private Date[] dates;
+}
@@ -0,0 +1,9 @@
+package sample;
+
+import lombok.Data;
+
+@Data
+public class MyOwner {
+    private String name;
+    private MyPet pet;
+}
@@ -0,0 +1,13 @@
+package sample;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@ToString(exclude = "owner")
+@EqualsAndHashCode(exclude = "owner")
+public class MyPet {
+    private String name;
+    private MyOwner owner;
+}
@@ -0,0 +1,8 @@
+package sample;
+
+import lombok.Data;
+
+@Data
+public class MyTag {
+    private String name;
+}
@@ -0,0 +1,9 @@
+package sample;
+
+import lombok.Data;
+
+@Data
+public class MyTagged {
+    private MyTag tag;
+    private sample.nest.MyTag nestTag;
+}
@@ -0,0 +1,12 @@
+package sample;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MyTreeNode {
+    private String name;
+    private MyTreeNode parent;
+    private List<MyTreeNode> children;
+}
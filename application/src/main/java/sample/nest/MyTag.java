@@ -0,0 +1,11 @@
+package sample.nest;
+
+import lombok.Value;
+
+/**
+ * Shares its simple name with {@link sample.MyTag}, so their factories need distinct names.
+ */
+@Value
+public class MyTag {
+    int id;
+}
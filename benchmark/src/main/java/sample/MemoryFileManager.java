@@ -0,0 +1,99 @@
+package sample;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps every file javac and the processors write in memory, so that a benchmark touches no disk.
+ * Generated sources are read back from memory when javac compiles them in a later round.
+ */
+class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+    private final Map<URI, MemoryFile> files = new LinkedHashMap<>();
+
+    MemoryFileManager(StandardJavaFileManager fileManager) {
+        super(fileManager);
+    }
+
+    @Override
+    public JavaFileObject getJavaFileForOutput(Location location, String className, JavaFileObject.Kind kind,
+                                               FileObject sibling) {
+        return file(location, className.replace('.', '/') + kind.extension, kind);
+    }
+
+    @Override
+    public FileObject getFileForOutput(Location location, String packageName, String relativeName, FileObject sibling) {
+        String path = packageName.isEmpty() ? relativeName : packageName.replace('.', '/') + "/" + relativeName;
+        return file(location, path, JavaFileObject.Kind.OTHER);
+    }
+
+    @Override
+    public boolean isSameFile(FileObject a, FileObject b) {
+        return a.toUri().equals(b.toUri());
+    }
+
+    private synchronized MemoryFile file(Location location, String path, JavaFileObject.Kind kind) {
+        URI uri = URI.create("memory:///" + location.getName() + "/" + path);
+        return files.computeIfAbsent(uri, u -> new MemoryFile(u, kind, location));
+    }
+
+    /**
+     * Bytes of the sources the processors generated.
+     */
+    synchronized long generatedBytes() {
+        return files.values().stream()
+                .filter(file -> file.location == StandardLocation.SOURCE_OUTPUT)
+                .mapToLong(file -> file.bytes.size())
+                .sum();
+    }
+
+    synchronized int generatedFiles() {
+        return (int) files.values().stream()
+                .filter(file -> file.location == StandardLocation.SOURCE_OUTPUT)
+                .count();
+    }
+
+    private static class MemoryFile extends SimpleJavaFileObject {
+        private final Location location;
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        MemoryFile(URI uri, Kind kind, Location location) {
+            super(uri, kind);
+            this.location = location;
+        }
+
+        @Override
+        public OutputStream openOutputStream() {
+            bytes.reset();
+            return bytes;
+        }
+
+        @Override
+        public Writer openWriter() {
+            return new OutputStreamWriter(openOutputStream(), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public InputStream openInputStream() {
+            return new ByteArrayInputStream(bytes.toByteArray());
+        }
+
+        @Override
+        public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+            return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package sample;
+
+import lombok.Value;
+
+import javax.annotation.processing.Completion;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Measures {@link Processor} compiling synthetic Lombok sources in memory.
+ *
+ * <pre>
+ * java -cp benchmark.jar:processor.jar:... sample.ProcessorBenchmark \
+ *     [-warmup n] [-iterations n] [-full] [-report file] [-baseline file [-tolerance 0.1]] \
+ *     [-AlombokTest.option=value ...] [classes=100,fields=10,mix=mixed,depth=1 ...]
+ * </pre>
+ *
+ * Every configuration is compiled by the javac of the running JDK with Lombok and the processor attached, reading
+ * its sources from strings and writing class files and generated sources to memory, so a run needs neither disk nor
+ * network. Only annotation processing runs unless {@code -full} asks for the generated tests to be compiled as well,
+ * which takes far longer than generating them. It reports the median wall time of the compilation, the median time spent in the processor, the bytes the
+ * compiling thread allocated in all and in the processor, and the bytes of the generated sources.
+ *
+ * The processor runs with {@code lombokTest.parallelism=1} unless told otherwise, because the allocation of other
+ * threads is not counted. {@code -report} writes the results as tab-separated values; {@code -baseline} compares
+ * the processor's time and allocation and the generated bytes with such a file and exits with 1 when one of them
+ * grew by more than the tolerance.
+ */
+public class ProcessorBenchmark {
+    private static final List<String> CONFIGURATIONS = Arrays.asList(
+            "classes=10,fields=10",
+            "classes=100,fields=10",
+            "classes=1000,fields=10",
+            "classes=10000,fields=1",
+            "classes=100,fields=1",
+            "classes=100,fields=50",
+            "classes=10,fields=200",
+            "classes=100,fields=10,mix=primitives",
+            "classes=100,fields=10,mix=strings",
+            "classes=100,fields=10,depth=5",
+            "classes=100,fields=10,depth=20");
+
+    public static void main(String[] args) throws IOException {
+        int warmup = 1;
+        int iterations = 3;
+        String report = null;
+        String baseline = null;
+        double tolerance = 0.1;
+        boolean full = false;
+        List<String> options = new ArrayList<>();
+        options.add("-A" + Options.PARALLELISM + "=1");
+        List<String> specs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "-warmup":
+                    warmup = Integer.parseInt(args[++i]);
+                    break;
+                case "-iterations":
+                    iterations = Integer.parseInt(args[++i]);
+                    break;
+                case "-report":
+                    report = args[++i];
+                    break;
+                case "-baseline":
+                    baseline = args[++i];
+                    break;
+                case "-tolerance":
+                    tolerance = Double.parseDouble(args[++i]);
+                    break;
+                case "-full":
+                    full = true;
+                    break;
+                default:
+                    if (args[i].startsWith("-A")) {
+                        options.add(args[i]);
+                    } else {
+                        specs.add(args[i]);
+                    }
+            }
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("ProcessorBenchmark needs the compiler of a JDK");
+            System.exit(2);
+        }
+
+        if (! full) {
+            options.add("-proc:only");
+        }
+        List<Result> results = new ArrayList<>();
+        System.out.println(Result.HEADER.replace('\t', ' '));
+        for (String spec : specs.isEmpty() ? CONFIGURATIONS : specs) {
+            SyntheticSources sources = SyntheticSources.of(spec);
+            for (int i = 0; i < warmup; i++) {
+                compile(compiler, sources, options);
+            }
+            List<Measurement> measurements = new ArrayList<>();
+            for (int i = 0; i < Math.max(1, iterations); i++) {
+                measurements.add(compile(compiler, sources, options));
+            }
+            Result result = Result.of(sources.name(), measurements);
+            System.out.println(result);
+            results.add(result);
+        }
+
+        if (report != null) {
+            List<String> lines = new ArrayList<>();
+            lines.add(Result.HEADER);
+            results.forEach(result -> lines.add(result.toTsv()));
+            Files.write(Paths.get(report), lines, StandardCharsets.UTF_8);
+        }
+        if (baseline != null && regressions(results, baseline, tolerance) > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Compiles the sources once on this thread.
+     */
+    static Measurement compile(JavaCompiler compiler, SyntheticSources sources, List<String> options) {
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        MemoryFileManager fileManager = new MemoryFileManager(
+                compiler.getStandardFileManager(null, Locale.ENGLISH, StandardCharsets.UTF_8));
+        List<String> javacOptions = new ArrayList<>(Arrays.asList(
+                "-classpath", System.getProperty("java.class.path"),
+                "-encoding", "UTF-8",
+                "-nowarn"));
+        javacOptions.addAll(options);
+        // this processor first, since Lombok's claims the Lombok annotations; then those of Lombok, found the way
+        // javac finds them on the annotation processor path
+        TimedProcessor processor = new TimedProcessor(new Processor());
+        List<javax.annotation.processing.Processor> processors = new ArrayList<>();
+        processors.add(processor);
+        for (javax.annotation.processing.Processor found : ServiceLoader.load(javax.annotation.processing.Processor.class)) {
+            if (! (found instanceof Processor)) {
+                processors.add(found);
+            }
+        }
+        JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics, javacOptions, null,
+                sources.sources());
+        task.setProcessors(processors);
+
+        long bytesBefore = allocatedBytes();
+        long start = System.nanoTime();
+        boolean success = task.call();
+        long wallNanos = System.nanoTime() - start;
+        long bytes = allocatedBytes() - bytesBefore;
+        if (! success) {
+            String errors = diagnostics.getDiagnostics().stream()
+                    .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                    .limit(5)
+                    .map(d -> d.getMessage(Locale.ENGLISH))
+                    .collect(Collectors.joining("\n"));
+            throw new IllegalStateException("Compilation of " + sources.name() + " failed:\n" + errors);
+        }
+        return new Measurement(wallNanos, processor.nanos, bytes, processor.bytes,
+                fileManager.generatedBytes(), fileManager.generatedFiles());
+    }
+
+    /**
+     * Prints the results whose processor time, processor allocation or generated bytes exceed the baseline by more
+     * than the tolerance.
+     *
+     * @return how many there are
+     */
+    private static int regressions(List<Result> results, String baseline, double tolerance) throws IOException {
+        Map<String, Result> previous = Files.readAllLines(Paths.get(baseline), StandardCharsets.UTF_8).stream()
+                .skip(1)
+                .filter(line -> ! line.isEmpty())
+                .map(Result::ofTsv)
+                .collect(Collectors.toMap(Result::getConfiguration, result -> result));
+        int regressions = 0;
+        for (Result result : results) {
+            Result before = previous.get(result.getConfiguration());
+            if (before == null) {
+                continue;
+            }
+            regressions += regression(result, "processor time", before.getProcessorNanos(), result.getProcessorNanos(), tolerance);
+            regressions += regression(result, "processor allocation", before.getProcessorBytes(), result.getProcessorBytes(), tolerance);
+            regressions += regression(result, "generated bytes", before.getGeneratedBytes(), result.getGeneratedBytes(), tolerance);
+        }
+        return regressions;
+    }
+
+    private static int regression(Result result, String what, long before, long after, double tolerance) {
+        if (after <= before * (1 + tolerance)) {
+            return 0;
+        }
+        System.out.printf("REGRESSION %s: %s %d -> %d (+%.1f%%)%n", result.getConfiguration(), what, before, after,
+                100.0 * (after - before) / Math.max(1, before));
+        return 1;
+    }
+
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (! (bean instanceof com.sun.management.ThreadMXBean)) {
+            return 0;
+        }
+        return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Value
+    static class Measurement {
+        long wallNanos;
+        long processorNanos;
+        long bytes;
+        long processorBytes;
+        long generatedBytes;
+        int generatedFiles;
+    }
+
+    /**
+     * Median times and least allocation of the measurements of a configuration.
+     */
+    @Value
+    static class Result {
+        static final String HEADER = "configuration\twallNanos\tprocessorNanos\tbytes\tprocessorBytes\tgeneratedBytes\tgeneratedFiles";
+
+        String configuration;
+        long wallNanos;
+        long processorNanos;
+        long bytes;
+        long processorBytes;
+        long generatedBytes;
+        int generatedFiles;
+
+        static Result of(String configuration, List<Measurement> measurements) {
+            Measurement last = measurements.get(measurements.size() - 1);
+            return new Result(configuration,
+                    median(measurements.stream().mapToLong(Measurement::getWallNanos).toArray()),
+                    median(measurements.stream().mapToLong(Measurement::getProcessorNanos).toArray()),
+                    measurements.stream().mapToLong(Measurement::getBytes).min().orElse(0),
+                    measurements.stream().mapToLong(Measurement::getProcessorBytes).min().orElse(0),
+                    last.getGeneratedBytes(),
+                    last.getGeneratedFiles());
+        }
+
+        static Result ofTsv(String line) {
+            String[] columns = line.split("\t");
+            return new Result(columns[0], Long.parseLong(columns[1]), Long.parseLong(columns[2]), Long.parseLong(columns[3]),
+                    Long.parseLong(columns[4]), Long.parseLong(columns[5]), Integer.parseInt(columns[6]));
+        }
+
+        String toTsv() {
+            return String.join("\t", configuration, String.valueOf(wallNanos), String.valueOf(processorNanos),
+                    String.valueOf(bytes), String.valueOf(processorBytes), String.valueOf(generatedBytes),
+                    String.valueOf(generatedFiles));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: wall %s, processor %s, allocated %s (processor %s), generated %s in %d files",
+                    configuration, Metrics.millis(wallNanos), Metrics.millis(processorNanos), megabytes(bytes),
+                    megabytes(processorBytes), megabytes(generatedBytes), generatedFiles);
+        }
+
+        private static long median(long[] values) {
+            Arrays.sort(values);
+            return values[values.length / 2];
+        }
+
+        private static String megabytes(long bytes) {
+            return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+        }
+    }
+
+    /**
+     * Adds up the time and allocation of the processor's own calls.
+     */
+    private static class TimedProcessor implements javax.annotation.processing.Processor {
+        private final javax.annotation.processing.Processor processor;
+        long nanos;
+        long bytes;
+
+        TimedProcessor(javax.annotation.processing.Processor processor) {
+            this.processor = processor;
+        }
+
+        @Override
+        public Set<String> getSupportedOptions() {
+            return processor.getSupportedOptions();
+        }
+
+        @Override
+        public Set<String> getSupportedAnnotationTypes() {
+            return processor.getSupportedAnnotationTypes();
+        }
+
+        @Override
+        public SourceVersion getSupportedSourceVersion() {
+            return processor.getSupportedSourceVersion();
+        }
+
+        @Override
+        public void init(ProcessingEnvironment processingEnv) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            processor.init(processingEnv);
+            nanos += System.nanoTime() - start;
+            bytes += allocatedBytes() - bytesBefore;
+        }
+
+        @Override
+        public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+            long bytesBefore = allocatedBytes();
+            long start = System.nanoTime();
+            try {
+                return processor.process(annotations, roundEnv);
+            } finally {
+                nanos += System.nanoTime() - start;
+                bytes += allocatedBytes() - bytesBefore;
+            }
+        }
+
+        @Override
+        public Iterable<? extends Completion> getCompletions(Element element, AnnotationMirror annotation,
+                                                             ExecutableElement member, String userText) {
+            return processor.getCompletions(element, annotation, member, userText);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package sample;
+
+import lombok.Value;
+
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lombok classes of a benchmark configuration, in package {@code bench}.
+ *
+ * Classes alternate between {@code @Data} and {@code @Value}, except that classes of more fields than a constructor
+ * can take parameters are all {@code @Data}. With a depth over 1 they form chains of that many classes, each but
+ * the first holding the previous one in its last field, the way {@code MyParentData} holds {@code MyData}.
+ */
+@Value
+class SyntheticSources {
+    static final String PACKAGE = "bench";
+    /**
+     * A method takes up to 255 parameter slots, and longs and doubles take two.
+     */
+    private static final int MAX_CONSTRUCTOR_FIELDS = 127;
+
+    int classes;
+    int fields;
+    Mix mix;
+    int depth;
+
+    enum Mix {
+        PRIMITIVES("int", "long", "boolean", "double", "char"),
+        STRINGS("String"),
+        MIXED("int", "String", "Long", "java.math.BigDecimal", "java.time.LocalDate", "java.util.List<String>",
+                "java.util.Map<String, Integer>", "Kind");
+
+        private final String[] types;
+
+        Mix(String... types) {
+            this.types = types;
+        }
+    }
+
+    /**
+     * @param spec {@code classes=100,fields=10,mix=mixed,depth=1}; the parts left out take those values
+     */
+    static SyntheticSources of(String spec) {
+        int classes = 100;
+        int fields = 10;
+        Mix mix = Mix.MIXED;
+        int depth = 1;
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Not name=value: " + part);
+            }
+            switch (pair[0].trim()) {
+                case "classes":
+                    classes = Integer.parseInt(pair[1].trim());
+                    break;
+                case "fields":
+                    fields = Integer.parseInt(pair[1].trim());
+                    break;
+                case "mix":
+                    mix = Mix.valueOf(pair[1].trim().toUpperCase(Locale.ENGLISH));
+                    break;
+                case "depth":
+                    depth = Integer.parseInt(pair[1].trim());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown part " + pair[0] + " of " + spec);
+            }
+        }
+        return new SyntheticSources(classes, fields, mix, Math.max(1, depth));
+    }
+
+    String name() {
+        return String.format("classes=%d,fields=%d,mix=%s,depth=%d",
+                classes, fields, mix.name().toLowerCase(Locale.ENGLISH), depth);
+    }
+
+    List<JavaFileObject> sources() {
+        List<JavaFileObject> result = new ArrayList<>();
+        result.add(source("Kind", "package " + PACKAGE + ";\n\npublic enum Kind {\n    A, B, C\n}\n"));
+        for (int i = 0; i < classes; i++) {
+            result.add(source(className(i), classSource(i)));
+        }
+        return result;
+    }
+
+    private String classSource(int i) {
+        StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n");
+        source.append(i % 2 == 0 || fields > MAX_CONSTRUCTOR_FIELDS ? "@lombok.Data\n" : "@lombok.Value\n");
+        source.append("public class ").append(className(i)).append(" {\n");
+        boolean nested = i % depth != 0;
+        int own = nested ? Math.max(0, fields - 1) : fields;
+        for (int j = 0; j < own; j++) {
+            source.append("    private ").append(mix.types[j % mix.types.length]).append(" field").append(j).append(";\n");
+        }
+        if (nested) {
+            source.append("    private ").append(className(i - 1)).append(" child;\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+    private static String className(int i) {
+        return "Class" + i;
+    }
+
+    private static JavaFileObject source(String className, String text) {
+        URI uri = URI.create("string:///" + PACKAGE + "/" + className + JavaFileObject.Kind.SOURCE.extension);
+        return new SimpleJavaFileObject(uri, JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return text;
+            }
+        };
+    }
+}
@@ -0,0 +1,25 @@
+package sample;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Generates an allocation test for the class even when {@code lombokTest.allocation} is not set.
+ *
+ * A negative budget falls back to the processor option.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface AllocationBudget {
+    /**
+     * Bytes {@code equals} and {@code hashCode} may allocate per call.
+     */
+    long equalsMaxBytes() default -1;
+
+    /**
+     * Bytes {@code toString} may allocate per call.
+     */
+    long toStringMaxBytes() default -1;
+}
@@ -0,0 +1,119 @@
+package sample;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates tests for classes that are already compiled, without compiling them again.
+ *
+ * <pre>
+ * java -cp processor.jar:javapoet.jar:junit.jar:jmh-core.jar sample.BatchGenerator \
+ *     [-classpath dependencies] [-AlombokTest.option=value ...] output input...
+ * </pre>
+ *
+ * Every input is a directory of class files or a jar. javac reads their top-level classes from the class files and
+ * runs {@link Processor} over them with {@code -proc:only} and {@link Detection#STRUCTURE}, so the classes are
+ * analyzed into the same models, generated in parallel on {@link Options#getParallelism()} threads and written
+ * into {@code output} once every class is done, in the order of their names.
+ */
+public class BatchGenerator {
+
+    public static void main(String[] args) throws IOException {
+        List<String> options = new ArrayList<>();
+        List<String> classpath = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("-classpath") || args[i].equals("-cp")) {
+                classpath.add(args[++i]);
+            } else if (args[i].startsWith("-A")) {
+                options.add(args[i]);
+            } else {
+                paths.add(args[i]);
+            }
+        }
+        if (paths.size() < 2) {
+            System.err.println("Usage: BatchGenerator [-classpath path] [-AlombokTest.option=value ...] output input...");
+            System.exit(2);
+        }
+
+        Path output = Paths.get(paths.get(0));
+        List<Path> inputs = paths.subList(1, paths.size()).stream().map(Paths::get).collect(Collectors.toList());
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            System.err.println("BatchGenerator needs the compiler of a JDK");
+            System.exit(2);
+        }
+        System.exit(generate(compiler, output, inputs, classpath, options) ? 0 : 1);
+    }
+
+    /**
+     * @param classpath dependencies of the inputs
+     * @param options   {@code -A} options of the processor
+     * @return whether javac reported no error
+     */
+    static boolean generate(JavaCompiler compiler, Path output, List<Path> inputs, List<String> classpath, List<String> options)
+            throws IOException {
+        List<String> classNames = new ArrayList<>();
+        for (Path input : inputs) {
+            classNames.addAll(classNames(input));
+        }
+        if (classNames.isEmpty()) {
+            System.err.println("No classes in " + inputs);
+            return true;
+        }
+        Files.createDirectories(output);
+
+        List<String> paths = new ArrayList<>(classpath);
+        inputs.forEach(input -> paths.add(input.toString()));
+        paths.add(System.getProperty("java.class.path"));
+        List<String> javacOptions = new ArrayList<>();
+        Collections.addAll(javacOptions,
+                "-proc:only",
+                "-s", output.toString(),
+                "-classpath", String.join(File.pathSeparator, paths),
+                "-A" + Options.DETECTION + "=" + Detection.STRUCTURE.name().toLowerCase(Locale.ENGLISH));
+        javacOptions.addAll(options);
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, null, javacOptions, classNames, null);
+        task.setProcessors(Collections.singletonList(new Processor()));
+        return task.call();
+    }
+
+    /**
+     * Binary names of the top-level classes; nested classes are reached through them.
+     */
+    static List<String> classNames(Path input) throws IOException {
+        List<String> files;
+        if (Files.isDirectory(input)) {
+            try (Stream<Path> walk = Files.walk(input)) {
+                files = walk.filter(Files::isRegularFile)
+                        .map(path -> input.relativize(path).toString().replace(File.separatorChar, '/'))
+                        .collect(Collectors.toList());
+            }
+        } else {
+            try (JarFile jar = new JarFile(input.toFile())) {
+                files = jar.stream().map(JarEntry::getName).collect(Collectors.toList());
+            }
+        }
+        return files.stream()
+                .filter(name -> name.endsWith(".class") && ! name.contains("$") && ! name.startsWith("META-INF/"))
+                .map(name -> name.substring(0, name.length() - ".class".length()))
+                .filter(name -> ! name.endsWith("package-info") && ! name.endsWith("module-info"))
+                .map(name -> name.replace('/', '.'))
+                .sorted()
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,514 @@
+package sample;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Value providers for the JDK types: primitives and their boxes, strings, numbers, dates, collections,
+ * {@link Optional}, enums and arrays.
+ */
+class BuiltinValueProviders {
+
+    private BuiltinValueProviders() {
+    }
+
+    static List<ValueProvider> all() {
+        return Arrays.asList(
+                of("java.lang.String", (name, context) -> Arrays.asList(
+                        new PlaceholderValue("$S", name, String.format("%s%d", name, 1)),
+                        new PlaceholderValue("$S", name, String.format("%s%d", name, 2)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$S + random.nextInt(1000)", name),
+                        (type, name, context) -> CodeBlock.of("$S + i", name)),
+                primitive(TypeKind.INT, "java.lang.Integer", "$L", 1, 2, "random.nextInt(1000)", "i"),
+                primitive(TypeKind.LONG, "java.lang.Long", "$LL", 1L, 2L, "(long) random.nextInt(1000)", "(long) i"),
+                primitive(TypeKind.BOOLEAN, "java.lang.Boolean", "$L", true, false, "random.nextBoolean()", "i % 2 == 0"),
+                primitive(TypeKind.SHORT, "java.lang.Short", "(short) $L", 1, 2, "(short) random.nextInt(100)", "(short) i"),
+                primitive(TypeKind.BYTE, "java.lang.Byte", "(byte) $L", 1, 2, "(byte) random.nextInt(100)", "(byte) i"),
+                primitive(TypeKind.CHAR, "java.lang.Character", "'$L'", 'a', 'b', "(char) ('a' + random.nextInt(26))", "(char) i"),
+                primitive(TypeKind.FLOAT, "java.lang.Float", "$LF", 1.0F, 2.0F, "(float) random.nextInt(1000)", "(float) i"),
+                primitive(TypeKind.DOUBLE, "java.lang.Double", "$LD", 1.0D, 2.0D, "(double) random.nextInt(1000)", "(double) i"),
+                of("java.math.BigDecimal", (name, context) -> Arrays.asList(
+                        new PlaceholderValue("$L", name, CodeBlock.of("new $T($S)", BigDecimal.class, "1")),
+                        new PlaceholderValue("$L", name, CodeBlock.of("new $T($S)", BigDecimal.class, "2")),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$T.valueOf(random.nextInt(1000))", BigDecimal.class),
+                        (type, name, context) -> CodeBlock.of("$T.valueOf(i)", BigDecimal.class)),
+                of("java.math.BigInteger", (name, context) -> Arrays.asList(
+                        new PlaceholderValue("$L", name, CodeBlock.of("$T.valueOf(1)", BigInteger.class)),
+                        new PlaceholderValue("$L", name, CodeBlock.of("$T.valueOf(2)", BigInteger.class)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$T.valueOf(random.nextInt(1000))", BigInteger.class),
+                        (type, name, context) -> CodeBlock.of("$T.valueOf(i)", BigInteger.class)),
+                of("java.util.UUID", (name, context) -> Arrays.asList(
+                        new PlaceholderValue("$L", name, CodeBlock.of("$T.fromString($S)", UUID.class, "00000000-0000-0000-0000-000000000001")),
+                        new PlaceholderValue("$L", name, CodeBlock.of("$T.fromString($S)", UUID.class, "00000000-0000-0000-0000-000000000002")),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("new $T(random.nextLong(), random.nextLong())", UUID.class),
+                        (type, name, context) -> CodeBlock.of("new $T(0L, i)", UUID.class)),
+                of("java.util.Date", (name, context) -> Arrays.asList(
+                        context.factory(name, "createDate1", () -> createDate(context.getSeed(), 1)),
+                        context.factory(name, "createDate2", () -> createDate(context.getSeed(), 2)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("new $T(random.nextInt(1000) * 1000L)", Date.class),
+                        (type, name, context) -> CodeBlock.of("new $T(i * 1000L)", Date.class)),
+                of("java.time.LocalDate", (name, context) -> Arrays.asList(
+                        context.factory(name, "createLocalDate1", () -> createLocalDate(context.getSeed(), 1)),
+                        context.factory(name, "createLocalDate2", () -> createLocalDate(context.getSeed(), 2)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$T.ofEpochDay(random.nextInt(1000))", LocalDate.class),
+                        (type, name, context) -> CodeBlock.of("$T.ofEpochDay(i)", LocalDate.class)),
+                of("java.time.LocalTime", (name, context) -> Arrays.asList(
+                        context.factory(name, "createLocalTime1", () -> createLocalTime(1)),
+                        context.factory(name, "createLocalTime2", () -> createLocalTime(2)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$T.ofSecondOfDay(random.nextInt(86400))", LocalTime.class),
+                        (type, name, context) -> CodeBlock.of("$T.ofSecondOfDay(i % 86400)", LocalTime.class)),
+                of("java.time.LocalDateTime", (name, context) -> Arrays.asList(
+                        context.factory(name, "createLocalDateTime1", () -> createLocalDateTime(context.getSeed(), 1)),
+                        context.factory(name, "createLocalDateTime2", () -> createLocalDateTime(context.getSeed(), 2)),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> CodeBlock.of("$T.of($T.ofEpochDay(random.nextInt(1000)), $T.ofSecondOfDay(random.nextInt(86400)))",
+                        LocalDateTime.class, LocalDate.class, LocalTime.class),
+                        (type, name, context) -> CodeBlock.of("$T.ofEpochSecond(i, 0, $T.UTC)", LocalDateTime.class, ZoneOffset.class)),
+                of("java.util.List", (name, context) -> Arrays.asList(
+                        context.factory(name, "createList", BuiltinValueProviders::createList),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> collectionOf(type, "$T.singletonList($L)", argument -> context.randomValue(argument, name)),
+                        (type, name, context) -> collectionOf(type, "$T.singletonList($L)", argument -> context.indexedValue(argument, name)),
+                        (type, name, context) -> sizedOf(type, name, context, "$T.toList()", false)),
+                of("java.util.Set", (name, context) -> Arrays.asList(
+                        context.factory(name, "createSet", BuiltinValueProviders::createSet),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> collectionOf(type, "$T.singleton($L)", argument -> context.randomValue(argument, name)),
+                        (type, name, context) -> collectionOf(type, "$T.singleton($L)", argument -> context.indexedValue(argument, name)),
+                        (type, name, context) -> sizedOf(type, name, context, "$T.toSet()", true)),
+                of("java.util.Map", (name, context) -> Arrays.asList(
+                        context.factory(name, "createMap", BuiltinValueProviders::createMap),
+                        new PlaceholderValue("$L", name, null)
+                ), (type, name, context) -> collectionOf(type, "$T.singletonMap($L, $L)", argument -> context.randomValue(argument, name)),
+                        (type, name, context) -> collectionOf(type, "$T.singletonMap($L, $L)", argument -> context.indexedValue(argument, name)),
+                        BuiltinValueProviders::sizedMapOf),
+                new OptionalProvider(),
+                new EnumProvider(),
+                new ArrayProvider()
+        );
+    }
+
+    /**
+     * Code of a random or indexed value, or null.
+     */
+    @FunctionalInterface
+    private interface Expression {
+        CodeBlock of(TypeMirror type, String name, ValueContext context);
+    }
+
+    /**
+     * A value of {@code size} elements, which may be created with a factory, or null.
+     */
+    @FunctionalInterface
+    private interface SizedExpression {
+        PlaceholderValue of(TypeMirror type, String name, ValueContext context);
+    }
+
+    private static ValueProvider of(String typeName, BiFunction<String, ValueContext, List<PlaceholderValue>> values,
+                                    Expression random, Expression indexed) {
+        return of(typeName, values, random, indexed, (type, name, context) -> null);
+    }
+
+    private static ValueProvider of(String typeName, BiFunction<String, ValueContext, List<PlaceholderValue>> values,
+                                    Expression random, Expression indexed, SizedExpression sized) {
+        return new ValueProvider() {
+            @Override
+            public boolean supports(TypeMirror type, ValueContext context) {
+                return type.getKind() == TypeKind.DECLARED && qualifiedName(type).equals(typeName);
+            }
+
+            @Override
+            public List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context) {
+                return values.apply(name, context);
+            }
+
+            @Override
+            public PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+                CodeBlock code = random.of(type, name, context);
+                return code == null ? null : new PlaceholderValue("$L", name, code);
+            }
+
+            @Override
+            public PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+                CodeBlock code = indexed.of(type, name, context);
+                return code == null ? null : new PlaceholderValue("$L", name, code);
+            }
+
+            @Override
+            public PlaceholderValue sizedValue(TypeMirror type, String name, ValueContext context) {
+                return sized.of(type, name, context);
+            }
+        };
+    }
+
+    /**
+     * A collection of values of the type arguments, or null when one of them has none.
+     *
+     * @param format   {@link Collections} factory taking the type arguments' values
+     * @param argument value of a type argument
+     */
+    private static CodeBlock collectionOf(TypeMirror type, String format, Function<TypeMirror, PlaceholderValue> argument) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.isEmpty()) {
+            return null;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(Collections.class);
+        for (TypeMirror typeArgument : arguments) {
+            PlaceholderValue value = argument.apply(typeArgument);
+            if (value == null) {
+                return null;
+            }
+            args.add(CodeBlock.of(value.getPlaceholder(), value.getValue()));
+        }
+        return CodeBlock.of(format, args.toArray());
+    }
+
+    /**
+     * A list or set of {@code size} indexed elements. A list of elements without indexed values, such as other
+     * target classes, repeats the first of their values instead.
+     *
+     * @param collector {@link Collectors} method the elements are collected with
+     */
+    private static PlaceholderValue sizedOf(TypeMirror type, String name, ValueContext context, String collector,
+                                            boolean distinct) {
+        TypeMirror element = typeArgument(type, 0);
+        if (element == null) {
+            return null;
+        }
+        PlaceholderValue value = context.indexedValue(element, name);
+        if (value == null && ! distinct) {
+            value = context.values(element, name).stream().filter(v -> v.getValue() != null).findFirst().orElse(null);
+        }
+        if (value == null) {
+            return null;
+        }
+        return new PlaceholderValue("$L", name,
+                CodeBlock.of("$T.range(0, size).<$T>mapToObj(i -> $L).collect(" + collector + ")",
+                        IntStream.class, TypeName.get(element), CodeBlock.of(value.getPlaceholder(), value.getValue()), Collectors.class),
+                value.getFactory());
+    }
+
+    /**
+     * A map of {@code size} indexed keys. Values without indexed values repeat the first of their values instead.
+     */
+    private static PlaceholderValue sizedMapOf(TypeMirror type, String name, ValueContext context) {
+        TypeMirror keyType = typeArgument(type, 0);
+        TypeMirror valueType = typeArgument(type, 1);
+        PlaceholderValue key = keyType == null ? null : context.indexedValue(keyType, name);
+        if (key == null || valueType == null) {
+            return null;
+        }
+        PlaceholderValue value = context.indexedValue(valueType, name);
+        if (value == null) {
+            value = context.values(valueType, name).stream().filter(v -> v.getValue() != null).findFirst().orElse(null);
+        }
+        if (value == null) {
+            return null;
+        }
+        TypeName mapType = ParameterizedTypeName.get(ClassName.get(HashMap.class), TypeName.get(keyType), TypeName.get(valueType));
+        return new PlaceholderValue("$L", name,
+                CodeBlock.of("$T.range(0, size).collect(() -> new $T(), (map, i) -> map.put($L, $L), $T::putAll)",
+                        IntStream.class, mapType,
+                        CodeBlock.of(key.getPlaceholder(), key.getValue()),
+                        CodeBlock.of(value.getPlaceholder(), value.getValue()),
+                        HashMap.class),
+                value.getFactory());
+    }
+
+    /**
+     * The type argument at the index, or null when there is none or it is a wildcard or a type variable.
+     */
+    private static TypeMirror typeArgument(TypeMirror type, int index) {
+        List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+        if (arguments.size() <= index) {
+            return null;
+        }
+        TypeMirror argument = arguments.get(index);
+        return argument.getKind() == TypeKind.DECLARED || argument.getKind() == TypeKind.ARRAY ? argument : null;
+    }
+
+    /**
+     * Two values for the primitive type, and null as well for its box.
+     */
+    private static ValueProvider primitive(TypeKind kind, String boxName, String placeholder, Object value1, Object value2,
+                                           String random, String indexed) {
+        return new ValueProvider() {
+            @Override
+            public boolean supports(TypeMirror type, ValueContext context) {
+                return type.getKind() == kind || type.getKind() == TypeKind.DECLARED && qualifiedName(type).equals(boxName);
+            }
+
+            @Override
+            public List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context) {
+                if (type.getKind() == kind) {
+                    return Arrays.asList(
+                            new PlaceholderValue(placeholder, name, value1),
+                            new PlaceholderValue(placeholder, name, value2)
+                    );
+                }
+                return Arrays.asList(
+                        new PlaceholderValue(placeholder, name, value1),
+                        new PlaceholderValue(placeholder, name, value2),
+                        new PlaceholderValue("$L", name, null)
+                );
+            }
+
+            @Override
+            public PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+                return new PlaceholderValue("$L", name, random);
+            }
+
+            @Override
+            public PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+                return new PlaceholderValue("$L", name, indexed);
+            }
+        };
+    }
+
+    private static String qualifiedName(TypeMirror type) {
+        return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+    }
+
+    private static class OptionalProvider implements ValueProvider {
+        @Override
+        public boolean supports(TypeMirror type, ValueContext context) {
+            return type.getKind() == TypeKind.DECLARED && qualifiedName(type).equals("java.util.Optional");
+        }
+
+        @Override
+        public List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context) {
+            List<PlaceholderValue> values = new ArrayList<>();
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            if (! arguments.isEmpty()) {
+                PlaceholderValue content = context.values(arguments.get(0), name).get(0);
+                if (content.getValue() != null) {
+                    values.add(new PlaceholderValue("$L", name,
+                            CodeBlock.of("$T.of($L)", Optional.class, CodeBlock.of(content.getPlaceholder(), content.getValue())),
+                            content.getFactory()));
+                }
+            }
+            values.add(new PlaceholderValue("$L", name, CodeBlock.of("$T.empty()", Optional.class)));
+            values.add(new PlaceholderValue("$L", name, null));
+            return values;
+        }
+
+        @Override
+        public PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            PlaceholderValue content = arguments.isEmpty() ? null : context.randomValue(arguments.get(0), name);
+            if (content == null) {
+                return null;
+            }
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("$T.of($L)", Optional.class, CodeBlock.of(content.getPlaceholder(), content.getValue())));
+        }
+
+        @Override
+        public PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+            List<? extends TypeMirror> arguments = ((DeclaredType) type).getTypeArguments();
+            PlaceholderValue content = arguments.isEmpty() ? null : context.indexedValue(arguments.get(0), name);
+            if (content == null) {
+                return null;
+            }
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("$T.of($L)", Optional.class, CodeBlock.of(content.getPlaceholder(), content.getValue())));
+        }
+    }
+
+    private static class EnumProvider implements ValueProvider {
+        @Override
+        public boolean supports(TypeMirror type, ValueContext context) {
+            return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+        }
+
+        @Override
+        public List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context) {
+            TypeName typeName = TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            List<PlaceholderValue> values = ((DeclaredType) type).asElement().getEnclosedElements().stream()
+                    .filter(e -> e.getKind() == ElementKind.ENUM_CONSTANT)
+                    .limit(2)
+                    .map(Element::getSimpleName)
+                    .map(constant -> new PlaceholderValue("$L", name, CodeBlock.of("$T.$L", typeName, constant)))
+                    .collect(Collectors.toList());
+            values.add(new PlaceholderValue("$L", name, null));
+            return values;
+        }
+
+        @Override
+        public PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+            if (((DeclaredType) type).asElement().getEnclosedElements().stream().noneMatch(e -> e.getKind() == ElementKind.ENUM_CONSTANT)) {
+                return null;
+            }
+            TypeName typeName = TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("$T.values()[random.nextInt($T.values().length)]", typeName, typeName));
+        }
+
+        @Override
+        public PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+            if (((DeclaredType) type).asElement().getEnclosedElements().stream().noneMatch(e -> e.getKind() == ElementKind.ENUM_CONSTANT)) {
+                return null;
+            }
+            TypeName typeName = TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("$T.values()[i % $T.values().length]", typeName, typeName));
+        }
+    }
+
+    /**
+     * One-element arrays of the first two non-null values of the component type, and null.
+     */
+    private static class ArrayProvider implements ValueProvider {
+        @Override
+        public boolean supports(TypeMirror type, ValueContext context) {
+            return type.getKind() == TypeKind.ARRAY;
+        }
+
+        @Override
+        public List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context) {
+            // generic arrays cannot be created, so the erasure is used
+            ArrayTypeName typeName = (ArrayTypeName) TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            List<PlaceholderValue> values = context.values(((ArrayType) type).getComponentType(), name).stream()
+                    .filter(v -> v.getValue() != null)
+                    .limit(2)
+                    .map(v -> new PlaceholderValue("$L", name,
+                            CodeBlock.of("new $T {$L}", typeName, CodeBlock.of(v.getPlaceholder(), v.getValue())),
+                            v.getFactory()))
+                    .collect(Collectors.toList());
+            values.add(new PlaceholderValue("$L", name, null));
+            return values;
+        }
+
+        @Override
+        public PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+            ArrayTypeName typeName = (ArrayTypeName) TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            PlaceholderValue component = context.randomValue(((ArrayType) type).getComponentType(), name);
+            if (component == null) {
+                return null;
+            }
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("new $T {$L}", typeName, CodeBlock.of(component.getPlaceholder(), component.getValue())));
+        }
+
+        @Override
+        public PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+            ArrayTypeName typeName = (ArrayTypeName) TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            PlaceholderValue component = context.indexedValue(((ArrayType) type).getComponentType(), name);
+            if (component == null) {
+                return null;
+            }
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("new $T {$L}", typeName, CodeBlock.of(component.getPlaceholder(), component.getValue())));
+        }
+
+        /**
+         * Arrays of primitives are left at zero, which their equals, hashCode and toString go over all the same.
+         */
+        @Override
+        public PlaceholderValue sizedValue(TypeMirror type, String name, ValueContext context) {
+            ArrayTypeName typeName = (ArrayTypeName) TypeName.get(context.getProcessingEnvironment().getTypeUtils().erasure(type));
+            if (typeName.componentType.isPrimitive()) {
+                return new PlaceholderValue("$L", name, CodeBlock.of("new $T[size]", typeName.componentType));
+            }
+            PlaceholderValue component = context.indexedValue(((ArrayType) type).getComponentType(), name);
+            if (component == null) {
+                return null;
+            }
+            return new PlaceholderValue("$L", name,
+                    CodeBlock.of("$T.range(0, size).<$T>mapToObj(i -> $L).toArray($T[]::new)", IntStream.class,
+                            typeName.componentType, CodeBlock.of(component.getPlaceholder(), component.getValue()),
+                            typeName.componentType));
+        }
+    }
+
+    static MethodSpec createList() {
+        return MethodSpec.methodBuilder("createList")
+                .returns(List.class)
+                .addStatement("return $T.asList()", Arrays.class)
+                .build();
+    }
+
+    static MethodSpec createSet() {
+        return MethodSpec.methodBuilder("createSet")
+                .returns(Set.class)
+                .addStatement("return $T.emptySet()", Collections.class)
+                .build();
+    }
+
+    static MethodSpec createMap() {
+        return MethodSpec.methodBuilder("createMap")
+                .returns(Map.class)
+                .addStatement("return $T.emptyMap()", Collections.class)
+                .build();
+    }
+
+    /**
+     * Day the date fixtures are built around, within fifty years of the epoch; the same for the same seed.
+     */
+    static long epochDay(long seed) {
+        return new Random(seed).nextInt(365 * 50);
+    }
+
+    static MethodSpec createDate(long seed, int n) {
+        return MethodSpec.methodBuilder("createDate" + n)
+                .returns(Date.class)
+                .addStatement("$T date = new $T()", Date.class, Date.class)
+                .addStatement("date.setTime($LL)", epochDay(seed) * 24 * 60 * 60 * 1000 + n * 1000)
+                .addStatement("return date")
+                .build();
+    }
+
+    static MethodSpec createLocalTime(int n) {
+        return MethodSpec.methodBuilder("createLocalTime" + n)
+                .returns(LocalTime.class)
+                .addStatement("return LocalTime.ofSecondOfDay($LL)", n * 1000)
+                .build();
+    }
+
+    static MethodSpec createLocalDate(long seed, int n) {
+        return MethodSpec.methodBuilder("createLocalDate" + n)
+                .returns(LocalDate.class)
+                .addStatement("return LocalDate.ofEpochDay($LL)", epochDay(seed) + n)
+                .build();
+    }
+
+    static MethodSpec createLocalDateTime(long seed, int n) {
+        return MethodSpec.methodBuilder("createLocalDateTime" + n)
+                .returns(LocalDateTime.class)
+                .addStatement("return LocalDateTime.of($T.ofEpochDay($LL), $T.ofSecondOfDay($LL))",
+                        LocalDate.class, epochDay(seed) + n,
+                        LocalTime.class, n * 1000)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package sample;
+
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.TypeSpec;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rough upper estimate of the bytecode javac emits for generated code.
+ *
+ * Counts invocations, allocations, constants and local accesses in the rendered source,
+ * which is close enough to keep generated methods under the JVM limits.
+ */
+class BytecodeSize {
+
+    /**
+     * Methods larger than this are never JIT-compiled by HotSpot (-XX:-DontCompileHugeMethods).
+     */
+    static final int HUGE_METHOD_LIMIT = 8000;
+
+    /**
+     * Hard limit of the code attribute of a single method.
+     */
+    static final int MAX_METHOD_LIMIT = 65535;
+
+    private static final int METHOD_OVERHEAD = 16;
+
+    private static final Pattern TOKEN = Pattern.compile(
+            "\"(?:[^\"\\\\]++|\\\\.)*+\""  // string literal, possessive so that long ones do not overflow the stack
+            + "|\\bnew\\b"                 // allocation
+            + "|\\bnull\\b"                // null constant
+            + "|[\\w$]+\\s*\\("            // invocation
+            + "|\\b\\d[\\w.]*"             // numeric literal
+            + "|\\b(?:true|false)\\b"      // boolean constant
+            + "|\\b[a-z][\\w$]*\\b(?!\\s*[.(])" // local variable access
+            + "|;");
+
+    private BytecodeSize() {
+    }
+
+    static int of(CodeBlock code) {
+        int size = 0;
+        Matcher matcher = TOKEN.matcher(code.toString());
+        while (matcher.find()) {
+            String token = matcher.group();
+            if (token.startsWith("\"")) {
+                size += 3;
+            } else if (token.equals("new")) {
+                size += 4;
+            } else if (token.equals("null") || token.equals(";")) {
+                size += 1;
+            } else if (token.endsWith("(")) {
+                // invoke instruction and receiver
+                size += 4;
+            } else if (Character.isDigit(token.charAt(0))) {
+                // the literal may be boxed as well
+                size += 6;
+            } else if (token.equals("true") || token.equals("false")) {
+                size += 4;
+            } else {
+                size += 2;
+            }
+        }
+        return size;
+    }
+
+    static int of(MethodSpec method) {
+        return METHOD_OVERHEAD + of(method.code);
+    }
+
+    static int of(TypeSpec type) {
+        return type.methodSpecs.stream().mapToInt(BytecodeSize::of).sum();
+    }
+}
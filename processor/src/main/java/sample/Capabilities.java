@@ -0,0 +1,139 @@
+package sample;
+
+import com.squareup.javapoet.TypeName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+import lombok.Value;
+
+import javax.lang.model.element.*;
+import javax.lang.model.util.ElementFilter;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * What Lombok generates for a class, read once during discovery: from its annotations or,
+ * for a compiled class, from its members.
+ */
+@Value
+class Capabilities {
+    /**
+     * Annotations that make a class a target.
+     */
+    static final Set<String> TARGET_ANNOTATIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            ToString.class.getName(),
+            Data.class.getName(),
+            Value.class.getName(),
+            EqualsAndHashCode.class.getName())));
+
+    static final Capabilities NONE = new Capabilities(false, false, false);
+
+    private static final String GENERATED = "lombok.Generated";
+    private static final String CONSTRUCTOR_PROPERTIES = "java.beans.ConstructorProperties";
+
+    boolean lombokToString;
+    boolean lombokEquals;
+    /**
+     * Whether objects are created with the all-args constructor instead of setters.
+     */
+    boolean fillConstructor;
+
+    boolean isTarget() {
+        return lombokToString || lombokEquals;
+    }
+
+    static Capabilities of(Element element) {
+        if (! (element instanceof TypeElement)) {
+            return NONE;
+        }
+        boolean toString = false;
+        boolean equals = false;
+        boolean fillConstructor = false;
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.equals(ToString.class.getName())) {
+                toString = true;
+            } else if (name.equals(EqualsAndHashCode.class.getName())) {
+                equals = true;
+            } else if (name.equals(Data.class.getName())) {
+                toString = true;
+                equals = true;
+            } else if (name.equals(Value.class.getName())) {
+                toString = true;
+                equals = true;
+                fillConstructor = true;
+            } else if (name.equals(AllArgsConstructor.class.getName())) {
+                fillConstructor = true;
+            }
+        }
+        return new Capabilities(toString, equals, fillConstructor);
+    }
+
+    /**
+     * Capabilities of a class read from a class file, where the Lombok annotations are gone.
+     *
+     * Lombok marks what it generates with {@code @lombok.Generated} when configured to; otherwise a class is taken
+     * for a Lombok class when it has a {@code canEqual} method, a {@code @ConstructorProperties} constructor, or the
+     * shape of {@code @Value}: final, with a getter for every field and a constructor taking them in order. Its
+     * {@code toString}, {@code equals} and {@code hashCode} are then taken for generated ones. Objects are created
+     * with that constructor if there is one, otherwise with setters.
+     */
+    static Capabilities ofStructure(Element element) {
+        if (element.getKind() != ElementKind.CLASS) {
+            return NONE;
+        }
+        List<ExecutableElement> methods = ElementFilter.methodsIn(element.getEnclosedElements());
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(element.getEnclosedElements()).stream()
+                .filter(c -> ! c.getModifiers().contains(Modifier.PRIVATE))
+                .collect(Collectors.toList());
+        List<VariableElement> fields = ElementFilter.fieldsIn(element.getEnclosedElements()).stream()
+                .filter(f -> ! f.getModifiers().contains(Modifier.STATIC))
+                .collect(Collectors.toList());
+        List<TypeName> fieldTypes = fields.stream().map(f -> TypeName.get(f.asType())).collect(Collectors.toList());
+        boolean fillConstructor = constructors.stream().anyMatch(c -> c.getParameters().stream()
+                .map(p -> TypeName.get(p.asType()))
+                .collect(Collectors.toList())
+                .equals(fieldTypes));
+        Set<String> methodNames = methods.stream().map(m -> m.getSimpleName().toString()).collect(Collectors.toSet());
+        boolean setters = constructors.stream().anyMatch(c -> c.getParameters().isEmpty()) &&
+                fields.stream().allMatch(f -> methodNames.contains("set" + TestGenerator.setter(f.getSimpleName().toString())));
+        boolean getters = fields.stream().allMatch(f -> getters(f.getSimpleName().toString()).stream().anyMatch(methodNames::contains));
+
+        boolean marked = element.getEnclosedElements().stream().anyMatch(e -> annotated(e, GENERATED));
+        boolean lombok = marked ||
+                methods.stream().anyMatch(m -> is(m, "canEqual", "java.lang.Object")) ||
+                constructors.stream().anyMatch(c -> annotated(c, CONSTRUCTOR_PROPERTIES)) ||
+                element.getModifiers().contains(Modifier.FINAL) && fillConstructor && getters;
+        if (! lombok || ! fillConstructor && ! setters) {
+            return NONE;
+        }
+        Predicate<ExecutableElement> generated = m -> ! marked || annotated(m, GENERATED);
+        boolean toString = methods.stream().filter(generated).anyMatch(m -> is(m, "toString"));
+        boolean equals = methods.stream().filter(generated).anyMatch(m -> is(m, "equals", "java.lang.Object")) &&
+                methods.stream().filter(generated).anyMatch(m -> is(m, "hashCode"));
+        return new Capabilities(toString, equals, fillConstructor);
+    }
+
+    /**
+     * Names Lombok may give the getter of a field.
+     */
+    static List<String> getters(String field) {
+        return Arrays.asList("get" + TestGenerator.setter(field), "is" + TestGenerator.setter(field));
+    }
+
+    private static boolean is(ExecutableElement method, String name, String... parameterTypes) {
+        return method.getSimpleName().contentEquals(name) &&
+                ! method.getModifiers().contains(Modifier.STATIC) &&
+                method.getParameters().stream()
+                        .map(p -> p.asType().toString())
+                        .collect(Collectors.toList())
+                        .equals(Arrays.asList(parameterTypes));
+    }
+
+    private static boolean annotated(Element element, String annotation) {
+        return element.getAnnotationMirrors().stream().anyMatch(a ->
+                ((TypeElement) a.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation));
+    }
+}
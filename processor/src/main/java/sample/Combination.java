@@ -0,0 +1,28 @@
+package sample;
+
+import java.util.Locale;
+
+/**
+ * How rows of field values are combined into equals assertions.
+ */
+enum Combination {
+    /**
+     * Compares every baseline / single-field-mutation row against every other row.
+     */
+    EXHAUSTIVE,
+    /**
+     * Compares the baseline against each single-field mutation, then every pair of rows of a t-wise covering array.
+     */
+    PAIRWISE,
+    /**
+     * Compares the baseline against each single-field mutation only.
+     */
+    MUTATION;
+
+    static Combination of(String name) {
+        if (name == null || name.isEmpty()) {
+            return EXHAUSTIVE;
+        }
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,148 @@
+package sample;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Greedy t-wise covering array over fields with a small number of values each.
+ *
+ * Every combination of values of every {@code strength} fields appears in at least one row.
+ * The construction takes time in the number of such subsets of fields, so it gives up at a deadline.
+ */
+class CoveringArray {
+
+    private final int[] sizes;
+    private final int[][] subsets;
+    private final boolean[][] covered;
+    private final long deadline;
+    private int uncovered;
+
+    private CoveringArray(int[] sizes, int strength, long deadline) {
+        this.sizes = sizes;
+        this.deadline = deadline;
+        List<int[]> subsets = new ArrayList<>();
+        subsets(0, new int[strength], 0, subsets);
+        this.subsets = subsets.toArray(new int[subsets.size()][]);
+        this.covered = new boolean[this.subsets.length][];
+        for (int i = 0; i < this.subsets.length; i++) {
+            int count = 1;
+            for (int field : this.subsets[i]) {
+                count *= sizes[field];
+            }
+            covered[i] = new boolean[count];
+            uncovered += count;
+        }
+    }
+
+    /**
+     * @param deadline in {@link System#nanoTime()}
+     * @return the rows, or null when the deadline passes before they cover every combination
+     */
+    static List<int[]> generate(int[] sizes, int strength, long deadline) {
+        int t = Math.max(1, Math.min(strength, sizes.length));
+        if (sizes.length == 0) {
+            return Arrays.asList(new int[0]);
+        }
+        return new CoveringArray(sizes, t, deadline).rows();
+    }
+
+    private void subsets(int from, int[] buf, int depth, List<int[]> result) {
+        if (depth == buf.length) {
+            result.add(buf.clone());
+            return;
+        }
+        for (int i = from; i < sizes.length; i++) {
+            buf[depth] = i;
+            subsets(i + 1, buf, depth + 1, result);
+        }
+    }
+
+    private List<int[]> rows() {
+        List<int[]> rows = new ArrayList<>();
+        while (uncovered > 0) {
+            int[] row = new int[sizes.length];
+            Arrays.fill(row, -1);
+            seed(row);
+            for (int field = 0; field < sizes.length; field++) {
+                if (System.nanoTime() > deadline) {
+                    return null;
+                }
+                if (row[field] < 0) {
+                    row[field] = bestValue(row, field);
+                }
+            }
+            cover(row);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void seed(int[] row) {
+        for (int i = 0; i < subsets.length; i++) {
+            for (int j = 0; j < covered[i].length; j++) {
+                if (! covered[i][j]) {
+                    int code = j;
+                    for (int k = subsets[i].length - 1; k >= 0; k--) {
+                        int field = subsets[i][k];
+                        row[field] = code % sizes[field];
+                        code /= sizes[field];
+                    }
+                    return;
+                }
+            }
+        }
+    }
+
+    private int bestValue(int[] row, int field) {
+        int best = 0;
+        int bestGain = -1;
+        for (int value = 0; value < sizes[field]; value++) {
+            row[field] = value;
+            int gain = 0;
+            for (int i = 0; i < subsets.length; i++) {
+                if (contains(subsets[i], field)) {
+                    int code = code(subsets[i], row);
+                    if (code >= 0 && ! covered[i][code]) {
+                        gain++;
+                    }
+                }
+            }
+            if (gain > bestGain) {
+                best = value;
+                bestGain = gain;
+            }
+        }
+        return best;
+    }
+
+    private void cover(int[] row) {
+        for (int i = 0; i < subsets.length; i++) {
+            int code = code(subsets[i], row);
+            if (! covered[i][code]) {
+                covered[i][code] = true;
+                uncovered--;
+            }
+        }
+    }
+
+    private int code(int[] subset, int[] row) {
+        int code = 0;
+        for (int field : subset) {
+            if (row[field] < 0) {
+                return -1;
+            }
+            code = code * sizes[field] + row[field];
+        }
+        return code;
+    }
+
+    private static boolean contains(int[] subset, int field) {
+        for (int f : subset) {
+            if (f == field) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package sample;
+
+import java.util.Locale;
+
+/**
+ * How the classes to generate tests for are recognized.
+ */
+enum Detection {
+    /**
+     * By their Lombok annotations, which only sources have.
+     */
+    ANNOTATIONS,
+    /**
+     * By the members Lombok generated into them, for classes read from class files; see {@link BatchGenerator}.
+     */
+    STRUCTURE;
+
+    static Detection of(String name) {
+        if (name == null || name.isEmpty()) {
+            return ANNOTATIONS;
+        }
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,27 @@
+package sample;
+
+import com.squareup.javapoet.ClassName;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * What the tests of a class are generated from, extracted from javac on the processing thread.
+ *
+ * It holds no javac objects, so tests can be generated from it on other threads.
+ */
+@Value
+class ElementModel {
+    ClassName className;
+    /**
+     * Prefix of the generated class names; nested classes are joined with underscores.
+     */
+    String testClassName;
+    List<TypeAndName> fields;
+    boolean fillConstructor;
+    boolean lombokToString;
+    boolean lombokEquals;
+    boolean allocation;
+    long equalsMaxBytes;
+    long toStringMaxBytes;
+}
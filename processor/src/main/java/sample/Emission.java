@@ -0,0 +1,29 @@
+package sample;
+
+import java.util.Locale;
+
+/**
+ * How the rows of an equals test are written into the generated source.
+ */
+enum Emission {
+    /**
+     * A constructor call or setter statements per object.
+     */
+    UNROLLED,
+    /**
+     * Rows as strings of value indexes into a per-field value table, built in a loop by one method.
+     */
+    TABLE,
+    /**
+     * One-line tests handing a descriptor of the class to the {@code ContractChecker} of the runtime module,
+     * which creates the objects through method handles.
+     */
+    RUNTIME;
+
+    static Emission of(String name) {
+        if (name == null || name.isEmpty()) {
+            return UNROLLED;
+        }
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+}
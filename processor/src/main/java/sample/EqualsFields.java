@@ -0,0 +1,173 @@
+package sample;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Names of the fields and methods of its own class that the {@code equals} method of a class file reads.
+ *
+ * Lombok keeps the {@code of} and {@code exclude} of {@code @EqualsAndHashCode} nowhere else in a compiled class;
+ * its {@code equals} compares exactly the included fields, directly or through their getters.
+ */
+class EqualsFields {
+    private static final int GETFIELD = 0xb4;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+
+    private EqualsFields() {
+    }
+
+    /**
+     * @return null when the class declares no {@code equals(Object)}
+     */
+    static Set<String> read(InputStream classFile) throws IOException {
+        DataInputStream in = new DataInputStream(classFile);
+        in.readInt();
+        in.readUnsignedShort();
+        in.readUnsignedShort();
+        int count = in.readUnsignedShort();
+        Object[] pool = new Object[count];
+        int[][] refs = new int[count][];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    pool[i] = in.readUTF();
+                    break;
+                case 3:
+                case 4:
+                    in.readInt();
+                    break;
+                case 5:
+                case 6:
+                    in.readLong();
+                    i++;
+                    break;
+                case 7:
+                case 8:
+                case 16:
+                case 19:
+                case 20:
+                    refs[i] = new int[] {tag, in.readUnsignedShort()};
+                    break;
+                case 15:
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 9:
+                case 10:
+                case 11:
+                case 12:
+                case 17:
+                case 18:
+                    refs[i] = new int[] {tag, in.readUnsignedShort(), in.readUnsignedShort()};
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        in.readUnsignedShort();
+        int thisClass = in.readUnsignedShort();
+        in.readUnsignedShort();
+        skip(in, in.readUnsignedShort() * 2);
+        int fields = in.readUnsignedShort();
+        for (int i = 0; i < fields; i++) {
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            in.readUnsignedShort();
+            skipAttributes(in);
+        }
+        int methods = in.readUnsignedShort();
+        for (int i = 0; i < methods; i++) {
+            in.readUnsignedShort();
+            String name = (String) pool[in.readUnsignedShort()];
+            String descriptor = (String) pool[in.readUnsignedShort()];
+            boolean equals = name.equals("equals") && descriptor.equals("(Ljava/lang/Object;)Z");
+            int attributes = in.readUnsignedShort();
+            for (int j = 0; j < attributes; j++) {
+                String attribute = (String) pool[in.readUnsignedShort()];
+                int length = in.readInt();
+                if (equals && attribute.equals("Code")) {
+                    byte[] code = new byte[length];
+                    in.readFully(code);
+                    return members(code, pool, refs, refs[thisClass][1]);
+                }
+                skip(in, length);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Members of the class that field reads and instance calls of the code refer to.
+     */
+    private static Set<String> members(byte[] attribute, Object[] pool, int[][] refs, int className) {
+        Set<String> result = new HashSet<>();
+        int start = 8;
+        int end = start + (((attribute[4] & 0xff) << 24) | ((attribute[5] & 0xff) << 16) | ((attribute[6] & 0xff) << 8) | (attribute[7] & 0xff));
+        for (int pc = start; pc < end; pc += length(attribute, pc, start)) {
+            int opcode = attribute[pc] & 0xff;
+            if (opcode == GETFIELD || opcode == INVOKEVIRTUAL || opcode == INVOKESPECIAL) {
+                int[] member = refs[((attribute[pc + 1] & 0xff) << 8) | (attribute[pc + 2] & 0xff)];
+                if (pool[refs[member[1]][1]].equals(pool[className])) {
+                    result.add((String) pool[refs[member[2]][1]]);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Length of the instruction at {@code pc}, operands included.
+     */
+    private static int length(byte[] code, int pc, int start) {
+        int opcode = code[pc] & 0xff;
+        switch (opcode) {
+            case 0x10: case 0x12: case 0x15: case 0x16: case 0x17: case 0x18: case 0x19:
+            case 0x36: case 0x37: case 0x38: case 0x39: case 0x3a: case 0xa9: case 0xbc:
+                return 2;
+            case 0x11: case 0x13: case 0x14: case 0x84: case 0xa7: case 0xa8:
+            case 0xb2: case 0xb3: case 0xb4: case 0xb5: case 0xb6: case 0xb7: case 0xb8:
+            case 0xbb: case 0xbd: case 0xc0: case 0xc1: case 0xc6: case 0xc7:
+                return 3;
+            case 0xc5:
+                return 4;
+            case 0xb9: case 0xba: case 0xc8: case 0xc9:
+                return 5;
+            case 0xc4:
+                return (code[pc + 1] & 0xff) == 0x84 ? 6 : 4;
+            case 0xaa: {
+                int operands = pc + 4 - (pc - start) % 4;
+                int low = readInt(code, operands + 4);
+                int high = readInt(code, operands + 8);
+                return operands - pc + 12 + (high - low + 1) * 4;
+            }
+            case 0xab: {
+                int operands = pc + 4 - (pc - start) % 4;
+                return operands - pc + 8 + readInt(code, operands + 4) * 8;
+            }
+            default:
+                return opcode >= 0x99 && opcode <= 0xa6 ? 3 : 1;
+        }
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xff) << 24) | ((bytes[offset + 1] & 0xff) << 16) |
+                ((bytes[offset + 2] & 0xff) << 8) | (bytes[offset + 3] & 0xff);
+    }
+
+    private static void skipAttributes(DataInputStream in) throws IOException {
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            in.readUnsignedShort();
+            skip(in, in.readInt());
+        }
+    }
+
+    private static void skip(DataInputStream in, int bytes) throws IOException {
+        in.readFully(new byte[bytes]);
+    }
+}
@@ -0,0 +1,83 @@
+package sample;
+
+import com.squareup.javapoet.MethodSpec;
+import lombok.Value;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Factory methods of the compilation: registered while analyzing, built once on first use by any generator.
+ * They are kept across rounds, as targets of a later round may use the factories of an earlier one.
+ */
+class Factories {
+    private final Map<Object, String> methods = new HashMap<>();
+    private final Map<String, Function<TestGenerator, MethodSpec>> builders = new HashMap<>();
+    private final Map<String, Factory> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Only called on the processing thread, before any generator runs.
+     *
+     * @param key    what the factory creates; the same key always means the same factory
+     * @param method name wanted for the factory, numbered when a factory of another key already has it
+     * @return name of the factory method
+     */
+    String register(Object key, String method, Function<TestGenerator, MethodSpec> builder) {
+        String registered = methods.get(key);
+        if (registered != null) {
+            return registered;
+        }
+        String unique = method;
+        for (int i = 2; builders.containsKey(unique); i++) {
+            unique = method + "_" + i;
+        }
+        methods.put(key, unique);
+        builders.put(unique, builder);
+        return unique;
+    }
+
+    /**
+     * Builds a factory on a generator of its own, recording the factories its body uses.
+     */
+    Factory get(String method, Supplier<TestGenerator> generators) {
+        return cache.computeIfAbsent(method, m -> {
+            TestGenerator generator = generators.get();
+            MethodSpec spec = named(builders.get(m).apply(generator), m);
+            return new Factory(spec, new ArrayList<>(generator.getUsed()));
+        });
+    }
+
+    /**
+     * The spec under the name it was registered with, which differs from the one it was built with when numbered.
+     */
+    private static MethodSpec named(MethodSpec spec, String name) {
+        if (spec.name.equals(name)) {
+            return spec;
+        }
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(name)
+                .addAnnotations(spec.annotations)
+                .addModifiers(spec.modifiers)
+                .addTypeVariables(spec.typeVariables)
+                .returns(spec.returnType)
+                .addParameters(spec.parameters)
+                .varargs(spec.varargs)
+                .addExceptions(spec.exceptions)
+                .addCode(spec.code);
+        if (! spec.javadoc.isEmpty()) {
+            builder.addJavadoc("$L", spec.javadoc);
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return cache.size();
+    }
+
+    @Value
+    static class Factory {
+        MethodSpec spec;
+        List<String> dependencies;
+    }
+}
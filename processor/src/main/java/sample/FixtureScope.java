@@ -0,0 +1,24 @@
+package sample;
+
+import java.util.Locale;
+
+/**
+ * Where the factory methods used by generated tests are written.
+ */
+enum FixtureScope {
+    /**
+     * Into every test class that uses them.
+     */
+    CLASS,
+    /**
+     * Once per package, as static methods of a LombokFixtures class that the tests import statically.
+     */
+    PACKAGE;
+
+    static FixtureScope of(String name) {
+        if (name == null || name.isEmpty()) {
+            return CLASS;
+        }
+        return valueOf(name.toUpperCase(Locale.ENGLISH));
+    }
+}
@@ -0,0 +1,204 @@
+package sample;
+
+import com.squareup.javapoet.ClassName;
+
+import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rendered test sources on disk, keyed by a fingerprint of everything they are generated from,
+ * so that they can be shared between builds and CI jobs.
+ *
+ * Entries are written atomically and touched when read; {@link #evict()} removes the least recently used
+ * until the directory fits in its size bound.
+ */
+class GenerationCache {
+    /**
+     * Part of every fingerprint: a digest of the builds of the processor and of JavaPoet, which renders the sources,
+     * so that a change to either generates anew without a version to bump by hand.
+     */
+    static final String VERSION = version(GenerationCache.class, ClassName.class);
+
+    private final Path directory;
+    private final long maxBytes;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private int evicted;
+
+    GenerationCache(Path directory, long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @param environment what the generation depends on besides the models: options, value providers
+     * @param models      all target classes of the round; those the model's fields refer to are part of the fingerprint
+     */
+    static String fingerprint(String environment, ElementModel model, Map<ClassName, ElementModel> models) {
+        StringBuilder text = new StringBuilder(VERSION).append('\n').append(environment).append('\n');
+        Set<ClassName> visited = new HashSet<>();
+        Deque<ElementModel> queue = new ArrayDeque<>(Collections.singleton(model));
+        while (! queue.isEmpty()) {
+            ElementModel next = queue.poll();
+            if (visited.add(next.getClassName())) {
+                text.append(next).append('\n');
+                for (TypeAndName field : next.getFields()) {
+                    TypeGraph.referencedClasses(field.getType()).stream()
+                            .map(models::get)
+                            .filter(Objects::nonNull)
+                            .forEach(queue::add);
+                }
+            }
+        }
+        try {
+            return hex(MessageDigest.getInstance("SHA-256").digest(text.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Digests the jars or class directories the classes are loaded from. When one cannot be read,
+     * the version is unique to this run, so that nothing is shared rather than something stale.
+     */
+    static String version(Class<?>... classes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Class<?> type : classes) {
+                Path location = Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+                List<Path> files;
+                if (Files.isDirectory(location)) {
+                    try (Stream<Path> walk = Files.walk(location)) {
+                        files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                    }
+                } else {
+                    files = Collections.singletonList(location);
+                }
+                for (Path file : files) {
+                    digest.update(location.relativize(file).toString().getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(file));
+                }
+            }
+            return hex(digest.digest());
+        } catch (IOException | URISyntaxException | NoSuchAlgorithmException | RuntimeException e) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * @return the sources, or empty when they are not cached or cannot be read
+     */
+    Optional<List<TestGenerator.Source>> get(String fingerprint) {
+        Path path = path(fingerprint);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int count = in.readInt();
+            List<TestGenerator.Source> sources = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                byte[] text = new byte[in.readInt()];
+                in.readFully(text);
+                sources.add(new TestGenerator.Source(name, new String(text, StandardCharsets.UTF_8)));
+            }
+            Files.setLastModifiedTime(path, FileTime.fromMillis(System.currentTimeMillis()));
+            hits.incrementAndGet();
+            return Optional.of(sources);
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Failing to store is not an error; the sources are generated again next time.
+     */
+    void put(String fingerprint, List<TestGenerator.Source> sources) {
+        Path path = path(fingerprint);
+        Path temp = null;
+        try {
+            Files.createDirectories(path.getParent());
+            temp = Files.createTempFile(path.getParent(), fingerprint, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(sources.size());
+                for (TestGenerator.Source source : sources) {
+                    byte[] text = source.getText().getBytes(StandardCharsets.UTF_8);
+                    out.writeUTF(source.getQualifiedName());
+                    out.writeInt(text.length);
+                    out.write(text);
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            try {
+                if (temp != null) {
+                    Files.deleteIfExists(temp);
+                }
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache is at most {@code maxBytes}.
+     * Entries another build removes meanwhile are skipped.
+     */
+    void evict() throws IOException {
+        if (! Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> files = Files.walk(directory)) {
+            entries = files.filter(Files::isRegularFile).collect(Collectors.toList());
+        }
+        Map<Path, BasicFileAttributes> attributes = new HashMap<>();
+        long size = 0;
+        for (Path entry : entries) {
+            try {
+                BasicFileAttributes entryAttributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                attributes.put(entry, entryAttributes);
+                size += entryAttributes.size();
+            } catch (IOException ignored) {
+            }
+        }
+        List<Path> leastRecentlyUsed = new ArrayList<>(attributes.keySet());
+        leastRecentlyUsed.sort(Comparator.comparing(entry -> attributes.get(entry).lastModifiedTime()));
+        for (Path entry : leastRecentlyUsed) {
+            if (size <= maxBytes) {
+                break;
+            }
+            try {
+                if (Files.deleteIfExists(entry)) {
+                    evicted++;
+                }
+            } catch (IOException ignored) {
+            }
+            size -= attributes.get(entry).size();
+        }
+    }
+
+    private Path path(String fingerprint) {
+        return directory.resolve(fingerprint.substring(0, 2)).resolve(fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Generation cache: %d hits, %d misses, %d evicted", hits.get(), misses.get(), evicted);
+    }
+}
@@ -0,0 +1,20 @@
+package sample;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Value
+class Indexed<T> {
+    T value;
+    int index;
+
+    static <T> List<Indexed<T>> withIndex(List<T> list) {
+        List<Indexed<T>> result = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            result.add(new Indexed<>(list.get(i), i));
+        }
+        return result;
+    }
+}
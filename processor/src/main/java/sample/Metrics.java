@@ -0,0 +1,116 @@
+package sample;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Where a round spent its time and what it generated, reported as NOTEs and, with
+ * {@code lombokTest.metricsFile}, as JSON.
+ */
+class Metrics {
+
+    private Metrics() {
+    }
+
+    @Data
+    static class Round {
+        final int round;
+        long discoveryNanos;
+        /**
+         * Classes, nested ones included, that discovery looked at.
+         */
+        int discoveredClasses;
+        final List<Element> elements = new ArrayList<>();
+
+        String summary() {
+            return String.format("Round %d: %d targets of %d classes, discovery %s",
+                    round, elements.size(), discoveredClasses, millis(discoveryNanos));
+        }
+
+        void toJson(StringBuilder json) {
+            json.append("{\"round\": ").append(round)
+                    .append(", \"discoveryNanos\": ").append(discoveryNanos)
+                    .append(", \"discoveredClasses\": ").append(discoveredClasses)
+                    .append(", \"elements\": [");
+            String separator = "";
+            for (Element element : elements) {
+                json.append(separator).append("\n    ");
+                element.toJson(json);
+                separator = ",";
+            }
+            json.append("]}");
+        }
+    }
+
+    /**
+     * Metrics of the tests of one class; the generation phases are zero when they came from the cache.
+     */
+    @Data
+    static class Element {
+        final String className;
+        long analysisNanos;
+        long combinationNanos;
+        long buildNanos;
+        long renderNanos;
+        long writeNanos;
+        int combinations;
+        int statements;
+        long bytes;
+        boolean cached;
+
+        @Override
+        public String toString() {
+            return String.format("%s: analysis %s, %d combinations in %s, build %s, render %s, write %s, %d statements, %d bytes%s",
+                    className, millis(analysisNanos), combinations, millis(combinationNanos), millis(buildNanos),
+                    millis(renderNanos), millis(writeNanos), statements, bytes, cached ? " (cached)" : "");
+        }
+
+        void toJson(StringBuilder json) {
+            json.append("{\"className\": ").append(string(className))
+                    .append(", \"analysisNanos\": ").append(analysisNanos)
+                    .append(", \"combinationNanos\": ").append(combinationNanos)
+                    .append(", \"buildNanos\": ").append(buildNanos)
+                    .append(", \"renderNanos\": ").append(renderNanos)
+                    .append(", \"writeNanos\": ").append(writeNanos)
+                    .append(", \"combinations\": ").append(combinations)
+                    .append(", \"statements\": ").append(statements)
+                    .append(", \"bytes\": ").append(bytes)
+                    .append(", \"cached\": ").append(cached)
+                    .append("}");
+        }
+    }
+
+    static String toJson(List<Round> rounds) {
+        StringBuilder json = new StringBuilder("[");
+        String separator = "";
+        for (Round round : rounds) {
+            json.append(separator).append("\n  ");
+            round.toJson(json);
+            separator = ",";
+        }
+        return json.append("\n]\n").toString();
+    }
+
+    /**
+     * Statements in a rendered source: lines ending with a semicolon.
+     */
+    static int statements(String source) {
+        int count = 0;
+        for (String line : source.split("\n")) {
+            if (line.trim().endsWith(";") && ! line.startsWith("import ") && ! line.startsWith("package ")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static String millis(long nanos) {
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+
+    private static String string(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
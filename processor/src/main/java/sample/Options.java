@@ -0,0 +1,201 @@
+package sample;
+
+import lombok.ToString;
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Processor options passed with {@code -A<name>=<value>}.
+ *
+ * {@link #toString()} leaves out the options that do not change the generated sources.
+ */
+@Value
+@ToString(exclude = {"parallelism", "metricsFile", "cacheDirectory", "cacheMaxBytes", "shards"})
+class Options {
+    public static final String COMBINATION = "lombokTest.combination";
+    public static final String STRENGTH = "lombokTest.strength";
+    public static final String EMISSION = "lombokTest.emission";
+    public static final String FIXTURES = "lombokTest.fixtures";
+    public static final String BENCHMARKS = "lombokTest.benchmarks";
+    public static final String ALLOCATION = "lombokTest.allocation";
+    public static final String EQUALS_MAX_BYTES = "lombokTest.equalsMaxBytes";
+    public static final String TO_STRING_MAX_BYTES = "lombokTest.toStringMaxBytes";
+    public static final String HASH_DISTRIBUTION = "lombokTest.hashDistribution";
+    public static final String HASH_SAMPLES = "lombokTest.hashSamples";
+    public static final String MAX_COLLISION_RATE = "lombokTest.maxCollisionRate";
+    public static final String MAX_CHI_SQUARE_RATIO = "lombokTest.maxChiSquareRatio";
+    public static final String SCALING = "lombokTest.scaling";
+    public static final String SCALING_SIZES = "lombokTest.scalingSizes";
+    public static final String MAX_SCALING_EXPONENT = "lombokTest.maxScalingExponent";
+    public static final String MAX_NANOS_PER_ELEMENT = "lombokTest.maxNanosPerElement";
+    public static final String CONCURRENCY = "lombokTest.concurrency";
+    public static final String MIN_THREAD_EFFICIENCY = "lombokTest.minThreadEfficiency";
+    public static final String FUZZ = "lombokTest.fuzz";
+    public static final String FUZZ_TRIALS = "lombokTest.fuzzTrials";
+    public static final String SEED = "lombokTest.seed";
+    public static final String METRICS_FILE = "lombokTest.metricsFile";
+    public static final String PARALLELISM = "lombokTest.parallelism";
+    public static final String CACHE_DIRECTORY = "lombokTest.cacheDirectory";
+    public static final String CACHE_MAX_BYTES = "lombokTest.cacheMaxBytes";
+    public static final String MAX_COMBINATIONS = "lombokTest.maxCombinations";
+    public static final String MAX_STATEMENTS = "lombokTest.maxStatements";
+    public static final String MAX_GENERATION_MILLIS = "lombokTest.maxGenerationMillis";
+    public static final String MAX_METHOD_BYTES = "lombokTest.maxMethodBytes";
+    public static final String MAX_CLASS_BYTES = "lombokTest.maxClassBytes";
+    public static final String DETECTION = "lombokTest.detection";
+    public static final String SHARDS = "lombokTest.shards";
+
+    public static final Set<String> NAMES = new HashSet<>(Arrays.asList(
+            COMBINATION,
+            STRENGTH,
+            EMISSION,
+            FIXTURES,
+            BENCHMARKS,
+            ALLOCATION,
+            EQUALS_MAX_BYTES,
+            TO_STRING_MAX_BYTES,
+            HASH_DISTRIBUTION,
+            HASH_SAMPLES,
+            MAX_COLLISION_RATE,
+            MAX_CHI_SQUARE_RATIO,
+            SCALING,
+            SCALING_SIZES,
+            MAX_SCALING_EXPONENT,
+            MAX_NANOS_PER_ELEMENT,
+            CONCURRENCY,
+            MIN_THREAD_EFFICIENCY,
+            FUZZ,
+            FUZZ_TRIALS,
+            SEED,
+            PARALLELISM,
+            METRICS_FILE,
+            CACHE_DIRECTORY,
+            CACHE_MAX_BYTES,
+            MAX_COMBINATIONS,
+            MAX_STATEMENTS,
+            MAX_GENERATION_MILLIS,
+            MAX_METHOD_BYTES,
+            MAX_CLASS_BYTES,
+            DETECTION,
+            SHARDS
+    ));
+
+    Combination combination;
+    int strength;
+    Emission emission;
+    FixtureScope fixtures;
+    boolean benchmarks;
+    boolean allocation;
+    long equalsMaxBytes;
+    long toStringMaxBytes;
+    boolean hashDistribution;
+    int hashSamples;
+    double maxCollisionRate;
+    double maxChiSquareRatio;
+    boolean scaling;
+    /**
+     * Elements the collection fields are filled with, in increasing order.
+     */
+    List<Integer> scalingSizes;
+    /**
+     * Exponent of the size the cost of a method may grow with, fitted over {@link #scalingSizes}.
+     */
+    double maxScalingExponent;
+    long maxNanosPerElement;
+    boolean concurrency;
+    /**
+     * Share of the throughput of one thread that each thread beyond the first must add to calls on shared objects.
+     * Measurements over 50 ms vary too much for more than a floor, so the default only catches collapse, as under a lock,
+     * where the throughput does not grow with the threads.
+     */
+    double minThreadEfficiency;
+    boolean fuzz;
+    /**
+     * Triples of random objects the equals contract is checked on, in batches of a thousand.
+     */
+    int fuzzTrials;
+    /**
+     * Seed of the fixture values that are not constants.
+     */
+    long seed;
+    /**
+     * Threads generating tests; 1 generates them on the processing thread.
+     */
+    int parallelism;
+    /**
+     * JSON file the {@link Metrics} of every round are written to, or null.
+     */
+    String metricsFile;
+    /**
+     * Directory of the {@link GenerationCache}, or null for none.
+     */
+    String cacheDirectory;
+    long cacheMaxBytes;
+    /**
+     * Objects compared by the equals test of a class before it falls back to single-field mutation, then to sampling.
+     */
+    long maxCombinations;
+    /**
+     * Statements of a generated method; tests are split further to stay under it.
+     */
+    int maxStatements;
+    /**
+     * Time generating the tests of a class may take before the remaining comparisons are dropped; 0 for no limit.
+     */
+    long maxGenerationMillis;
+    int maxMethodBytes;
+    int maxClassBytes;
+    Detection detection;
+    /**
+     * Suites the test classes of a round are divided between, for as many parallel test forks; 0 for none.
+     */
+    int shards;
+
+    static Options of(Map<String, String> options) {
+        return new Options(
+                Combination.of(options.get(COMBINATION)),
+                Integer.parseInt(options.getOrDefault(STRENGTH, "2")),
+                Emission.of(options.get(EMISSION)),
+                FixtureScope.of(options.get(FIXTURES)),
+                Boolean.parseBoolean(options.get(BENCHMARKS)),
+                Boolean.parseBoolean(options.get(ALLOCATION)),
+                Long.parseLong(options.getOrDefault(EQUALS_MAX_BYTES, "0")),
+                Long.parseLong(options.getOrDefault(TO_STRING_MAX_BYTES, "4096")),
+                Boolean.parseBoolean(options.get(HASH_DISTRIBUTION)),
+                Integer.parseInt(options.getOrDefault(HASH_SAMPLES, "4096")),
+                Double.parseDouble(options.getOrDefault(MAX_COLLISION_RATE, "0.4")),
+                Double.parseDouble(options.getOrDefault(MAX_CHI_SQUARE_RATIO, "2.0")),
+                Boolean.parseBoolean(options.get(SCALING)),
+                Arrays.stream(options.getOrDefault(SCALING_SIZES, "10,1000,100000").split(","))
+                        .map(String::trim)
+                        .map(Integer::valueOf)
+                        .sorted()
+                        .collect(Collectors.toList()),
+                Double.parseDouble(options.getOrDefault(MAX_SCALING_EXPONENT, "1.5")),
+                Long.parseLong(options.getOrDefault(MAX_NANOS_PER_ELEMENT, "1000")),
+                Boolean.parseBoolean(options.get(CONCURRENCY)),
+                Double.parseDouble(options.getOrDefault(MIN_THREAD_EFFICIENCY, "0.1")),
+                Boolean.parseBoolean(options.get(FUZZ)),
+                Integer.parseInt(options.getOrDefault(FUZZ_TRIALS, "20000")),
+                Long.parseLong(options.getOrDefault(SEED, "0")),
+                Integer.parseInt(options.getOrDefault(PARALLELISM, String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                options.get(METRICS_FILE),
+                options.get(CACHE_DIRECTORY),
+                Long.parseLong(options.getOrDefault(CACHE_MAX_BYTES, String.valueOf(256L * 1024 * 1024))),
+                Long.parseLong(options.getOrDefault(MAX_COMBINATIONS, "10000")),
+                Integer.parseInt(options.getOrDefault(MAX_STATEMENTS, "1000")),
+                Long.parseLong(options.getOrDefault(MAX_GENERATION_MILLIS, "60000")),
+                Math.min(BytecodeSize.MAX_METHOD_LIMIT,
+                        Integer.parseInt(options.getOrDefault(MAX_METHOD_BYTES, String.valueOf(BytecodeSize.HUGE_METHOD_LIMIT)))),
+                Integer.parseInt(options.getOrDefault(MAX_CLASS_BYTES, "65536")),
+                Detection.of(options.get(DETECTION)),
+                Integer.parseInt(options.getOrDefault(SHARDS, "0"))
+        );
+    }
+}
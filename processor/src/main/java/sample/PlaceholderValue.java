@@ -0,0 +1,23 @@
+package sample;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+/**
+ * A value of a field as it is written into generated code: a JavaPoet format with one argument.
+ */
+@Value
+@AllArgsConstructor
+public class PlaceholderValue {
+    String placeholder;
+    String name;
+    Object value;
+    /**
+     * Name of the factory method of the test class the value is created with, or null.
+     */
+    String factory;
+
+    public PlaceholderValue(String placeholder, String name, Object value) {
+        this(placeholder, name, value, null);
+    }
+}
@@ -2,25 +2,35 @@ package sample;
 
 import com.squareup.javapoet.*;
 import lombok.*;
-import org.junit.Assert;
-import org.junit.Test;
 
 import javax.annotation.processing.AbstractProcessor;
 import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
 import javax.annotation.processing.RoundEnvironment;
 import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
+import javax.lang.model.type.ArrayType;
 import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeMirror;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import static sample.Processor.Indexed.withIndex;
-
 /**
  * Created by sakura on 2016/11/08.
  *
@@ -28,13 +38,65 @@ import static sample.Processor.Indexed.withIndex;
 public class Processor extends AbstractProcessor {
 
     private int round;
+    private final List<Metrics.Round> rounds = new ArrayList<>();
+    private Options options;
     private Set<Element> targetElements;
-    private Map<FactoryKey, MethodSpec> factories;
+    private Map<Element, Capabilities> capabilities;
+    private Map<TypeElement, ElementModel> models;
+    /**
+     * Models of every target analyzed so far, in this round or an earlier one.
+     */
+    private final Map<ClassName, ElementModel> index = new HashMap<>();
+    /**
+     * Targets whose tests are written; a class seen again in a later round is not generated twice.
+     */
+    private final Set<String> emitted = new HashSet<>();
+    /**
+     * Targets waiting for the types of their fields, or of their target fields' fields, to be generated.
+     */
+    private final Set<String> deferred = new TreeSet<>();
+    /**
+     * Whether each field type looked up outside the targets is a compiled Lombok class, see {@link #compiledTarget}.
+     */
+    private final Map<ClassName, Boolean> compiledTargets = new HashMap<>();
+    private ValueProviders valueProviders;
+    private Factories factories;
+    private Map<String, ClassName> fixtureClasses;
+    private Map<String, Map<String, MethodSpec>> fixtures;
+    private Map<String, Set<Element>> fixtureOrigins;
+    private Set<ClassName> writtenFixtureClasses = new HashSet<>();
+    private boolean shardsWritten;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        options = Options.of(processingEnv.getOptions());
+        valueProviders = new ValueProviders(Processor.class.getClassLoader());
+        factories = new Factories();
+    }
+
+    /**
+     * Besides the processor's own options, tells Gradle whether this run is isolating or,
+     * with fixtures shared by the tests of a package or shard suites over the tests of a round, aggregating.
+     */
+    @Override
+    public Set<String> getSupportedOptions() {
+        Set<String> names = new HashSet<>(Options.NAMES);
+        if (options != null && (options.getFixtures() == FixtureScope.PACKAGE || options.getShards() > 0)) {
+            names.add("org.gradle.annotation.processing.aggregating");
+        } else {
+            names.add("org.gradle.annotation.processing.isolating");
+        }
+        return names;
+    }
 
     @Override
     public Set<String> getSupportedAnnotationTypes() {
-        HashSet<String> types = new HashSet<>();
-        types.add("lombok.*");
+        if (options != null && options.getDetection() == Detection.STRUCTURE) {
+            return Collections.singleton("*");
+        }
+        HashSet<String> types = new HashSet<>(Capabilities.TARGET_ANNOTATIONS);
+        types.add(AllocationBudget.class.getName());
         return types;
     }
 
@@ -43,84 +105,355 @@ public class Processor extends AbstractProcessor {
         return SourceVersion.RELEASE_8;
     }
 
+    /**
+     * Analyzes the targets into {@link ElementModel}s on this thread, generates and renders their tests on
+     * {@link Options#getParallelism()} threads, then writes the sources in the order of the targets' names.
+     */
     @Override
     public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
-        System.out.println("Round : " + (this.round++));
+        Metrics.Round roundMetrics = new Metrics.Round(this.round++);
+        rounds.add(roundMetrics);
+
+        capabilities = discover(roundEnv, roundMetrics);
+        for (String name : deferred) {
+            TypeElement element = processingEnv.getElementUtils().getTypeElement(name);
+            if (element != null) {
+                capabilities.putIfAbsent(element, capabilities(element));
+            }
+        }
+        deferred.clear();
+        targetElements = new HashSet<>(capabilities.keySet());
+        targetElements.removeIf(e -> e.getModifiers().contains(Modifier.PRIVATE) || e.getModifiers().contains(Modifier.ABSTRACT));
+        targetElements.removeIf(e -> emitted.contains(((TypeElement) e).getQualifiedName().toString()));
+        defer(roundEnv);
+        List<TypeElement> targets = targetElements.stream()
+                .map(e -> (TypeElement) e)
+                .sorted(Comparator.comparing(e -> e.getQualifiedName().toString()))
+                .collect(Collectors.toList());
 
-        targetElements = new HashSet<>();
+        models = new HashMap<>();
+        fixtureClasses = new HashMap<>();
+        fixtures = new HashMap<>();
+        fixtureOrigins = new HashMap<>();
+
+        Map<TypeElement, Long> analysisNanos = new HashMap<>();
+        for (TypeElement element : targets) {
+            long start = System.nanoTime();
+            ElementModel model = model(element);
+            analysisNanos.put(element, System.nanoTime() - start);
+            index.put(model.getClassName(), model);
+            emitted.add(element.getQualifiedName().toString());
+            if (options.getFixtures() == FixtureScope.PACKAGE) {
+                fixtureClass(model.getClassName().packageName());
+            }
+        }
 
-        targetElements.addAll(roundEnv.getElementsAnnotatedWith(ToString.class));
-        targetElements.addAll(roundEnv.getElementsAnnotatedWith(Data.class));
-        targetElements.addAll(roundEnv.getElementsAnnotatedWith(Value.class));
-        targetElements.addAll(roundEnv.getElementsAnnotatedWith(EqualsAndHashCode.class));
-        targetElements.removeIf(e -> e.getModifiers().contains(Modifier.PRIVATE) || e.getModifiers().contains(Modifier.ABSTRACT));
+        TypeGraph graph = new TypeGraph(index);
+        GenerationCache cache = cache();
+        String environment = options + " " + valueProviders;
 
         Filer filer = super.processingEnv.getFiler();
+        List<TestGenerator.SizeStats> stats = new ArrayList<>();
+        Map<String, Long> shardCosts = new HashMap<>();
         try {
-            for (Element element : targetElements) {
-                factories = new HashMap<>();
-                PackageAndClass name = PackageAndClass.of(element);
-                TypeSpec.Builder builder = TypeSpec.classBuilder(name.getClassName() + "_LombokTest")
-                        .addModifiers(Modifier.PUBLIC);
-
-                if (hasToString(element)) {
-                    builder.addMethod(toStringTestSpec((TypeElement) element));
+            List<TestGenerator.Generated> generated = generate(targets.stream().map(models::get).collect(Collectors.toList()), model -> {
+                if (cache == null) {
+                    return new TestGenerator(options, index, graph, fixtureClasses, factories).generate(model);
+                }
+                String fingerprint = GenerationCache.fingerprint(environment, model, index);
+                Optional<List<TestGenerator.Source>> sources = cache.get(fingerprint);
+                if (sources.isPresent()) {
+                    Metrics.Element metrics = new Metrics.Element(model.getClassName().toString());
+                    metrics.setCached(true);
+                    return new TestGenerator.Generated(sources.get(), Collections.emptyMap(), null, metrics, Collections.emptyList());
                 }
-                if (hasHashCodeEquals(element)) {
-                    builder.addMethod(equalsTestSpec((TypeElement) element));
-                    builder.addMethod(hashCodeTestSpec((TypeElement) element));
+                TestGenerator.Generated result = new TestGenerator(options, index, graph, fixtureClasses, factories).generate(model);
+                // tests cut down by a budget are generated again, so that the warning is not lost
+                if (result.getWarnings().isEmpty()) {
+                    cache.put(fingerprint, result.getSources());
                 }
+                return result;
+            });
+
+            for (int i = 0; i < targets.size(); i++) {
+                TypeElement element = targets.get(i);
+                TestGenerator.Generated result = generated.get(i);
+                Metrics.Element metrics = result.getMetrics();
+                metrics.setAnalysisNanos(analysisNanos.get(element));
+                for (String warning : result.getWarnings()) {
+                    processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, warning, element);
+                }
+                long start = System.nanoTime();
+                for (TestGenerator.Source source : result.getSources()) {
+                    write(filer, source, element);
+                    metrics.setStatements(metrics.getStatements() + Metrics.statements(source.getText()));
+                    metrics.setBytes(metrics.getBytes() + source.getText().getBytes(StandardCharsets.UTF_8).length);
+                }
+                metrics.setWriteNanos(System.nanoTime() - start);
+                List<String> testClasses = result.getSources().stream()
+                        .map(TestGenerator.Source::getQualifiedName)
+                        .filter(Shards::isTestClass)
+                        .collect(Collectors.toList());
+                long cost = TestGenerator.cost(options, models.get(element));
+                testClasses.forEach(testClass -> shardCosts.put(testClass, Math.max(1, cost / testClasses.size())));
+                roundMetrics.getElements().add(metrics);
+                if (result.getStats() != null) {
+                    stats.add(result.getStats());
+                }
+                if (! result.getSharedFactories().isEmpty()) {
+                    String packageName = models.get(element).getClassName().packageName();
+                    fixtures.computeIfAbsent(packageName, p -> new HashMap<>()).putAll(result.getSharedFactories());
+                    fixtureOrigins.computeIfAbsent(packageName, p -> new LinkedHashSet<>()).add(element);
+                }
+            }
+            for (Map.Entry<String, Map<String, MethodSpec>> entry : new TreeMap<>(fixtures).entrySet()) {
+                JavaFile.builder(entry.getKey(), fixturesTypeSpec(entry.getKey(), entry.getValue())).build().writeTo(filer);
+            }
+            if (options.getShards() > 0 && ! shardCosts.isEmpty()) {
+                writeShards(filer, shardCosts, targets);
+            }
+            if (cache != null) {
+                cache.evict();
+            }
+        } catch (Exception e) {
+            // an error, so that javac and the batch generator fail rather than leave tests out unnoticed
+            Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+            StringWriter trace = new StringWriter();
+            cause.printStackTrace(new PrintWriter(trace));
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Cannot generate tests: " + trace);
+        }
 
-                builder.addMethods(factories.values());
+        for (TestGenerator.SizeStats stat : stats) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, stat.toString());
+        }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, roundMetrics.summary());
+        for (Metrics.Element metrics : roundMetrics.getElements()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, metrics.toString());
+        }
+        if (options.getMetricsFile() != null) {
+            try {
+                Files.write(Paths.get(options.getMetricsFile()), Metrics.toJson(rounds).getBytes(StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "Cannot write metrics to " + options.getMetricsFile() + ": " + e);
+            }
+        }
+        if (! targetElements.isEmpty()) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format(
+                    "Analyzed %d classes, %d factories", models.size(), factories.size()));
+            if (cache != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, cache.toString());
+            }
+        }
 
-                TypeSpec typeSpec = builder.build();
+        return false;
+    }
 
-                String packageName = name.getPackageName();
-                JavaFile.builder(packageName, typeSpec).build().writeTo(filer);
+    /**
+     * Finds the targets among the round's classes and their nested classes in one traversal,
+     * reading the annotations of each class once.
+     */
+    private Map<Element, Capabilities> discover(RoundEnvironment roundEnv, Metrics.Round metrics) {
+        long start = System.nanoTime();
+        Map<Element, Capabilities> result = new HashMap<>();
+        Deque<Element> queue = new ArrayDeque<>(roundEnv.getRootElements());
+        int visited = 0;
+        while (! queue.isEmpty()) {
+            Element element = queue.poll();
+            if (! (element instanceof TypeElement)) {
+                continue;
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            visited++;
+            Capabilities elementCapabilities = capabilities(element);
+            if (elementCapabilities.isTarget()) {
+                result.put(element, elementCapabilities);
+            }
+            queue.addAll(element.getEnclosedElements());
         }
+        metrics.setDiscoveryNanos(System.nanoTime() - start);
+        metrics.setDiscoveredClasses(visited);
+        return result;
+    }
 
-        return false;
+    private Capabilities capabilities(Element element) {
+        return options.getDetection() == Detection.STRUCTURE ? Capabilities.ofStructure(element) : Capabilities.of(element);
     }
 
-    private boolean hasHashCodeEquals(Element element) {
-        return element.getAnnotation(EqualsAndHashCode.class) != null ||
-                element.getAnnotation(Data.class) != null ||
-                element.getAnnotation(Value.class) != null;
+    /**
+     * Moves the targets with a field type javac cannot resolve yet, as another processor has still to generate it,
+     * from {@link #targetElements} to {@link #deferred}, along with the targets whose fields refer to them.
+     * They are looked up again next round. In the last round, when no more types can appear, they are reported instead.
+     */
+    private void defer(RoundEnvironment roundEnv) {
+        Set<String> waiting = new HashSet<>();
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (Element element : targetElements) {
+                String name = ((TypeElement) element).getQualifiedName().toString();
+                if (! waiting.contains(name) && waitsFor(element, waiting)) {
+                    waiting.add(name);
+                    changed = true;
+                }
+            }
+        }
+        targetElements.removeIf(e -> waiting.contains(((TypeElement) e).getQualifiedName().toString()));
+        if (roundEnv.processingOver()) {
+            for (String name : new TreeSet<>(waiting)) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                        "No tests generated for " + name + "; the types of its fields were never resolved");
+            }
+        } else {
+            deferred.addAll(waiting);
+        }
+    }
 
+    private boolean waitsFor(Element element, Set<String> waiting) {
+        return element.getEnclosedElements().stream()
+                .filter(e -> e.getKind() == ElementKind.FIELD && ! e.getModifiers().contains(Modifier.STATIC))
+                .anyMatch(e -> waitsFor(e.asType(), waiting));
+    }
+
+    private boolean waitsFor(TypeMirror type, Set<String> waiting) {
+        switch (type.getKind()) {
+            case ERROR:
+                return true;
+            case ARRAY:
+                return waitsFor(((ArrayType) type).getComponentType(), waiting);
+            case DECLARED:
+                TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+                return waiting.contains(element.getQualifiedName().toString()) ||
+                        ((DeclaredType) type).getTypeArguments().stream().anyMatch(t -> waitsFor(t, waiting));
+            default:
+                return false;
+        }
     }
 
-    private boolean hasToString(Element element) {
-        return element.getAnnotation(ToString.class) != null ||
-                element.getAnnotation(Data.class) != null ||
-                element.getAnnotation(Value.class) != null;
+    /**
+     * The cache of {@link Options#getCacheDirectory()}; none when factories are shared per package,
+     * as the fixtures are built from the factories of every class.
+     */
+    private GenerationCache cache() {
+        if (options.getCacheDirectory() == null || options.getFixtures() == FixtureScope.PACKAGE) {
+            return null;
+        }
+        return new GenerationCache(Paths.get(options.getCacheDirectory()), options.getCacheMaxBytes());
     }
 
-    private MethodSpec toStringTestSpec(TypeElement element) {
-        return MethodSpec.methodBuilder("testToString")
-                .addModifiers(Modifier.PUBLIC)
-                .addAnnotation(Test.class)
-                .addCode(toStringBody(element))
-                .build();
+    /**
+     * Maps the models in order, on a pool of {@link Options#getParallelism()} threads unless that is 1.
+     */
+    private <T> List<T> generate(List<ElementModel> elements, Function<ElementModel, T> generator) throws Exception {
+        if (options.getParallelism() <= 1 || elements.size() <= 1) {
+            return elements.stream().map(generator).collect(Collectors.toList());
+        }
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        try {
+            return pool.submit(() -> elements.parallelStream().map(generator).collect(Collectors.toList())).get();
+        } finally {
+            pool.shutdown();
+        }
     }
 
-    private CodeBlock toStringBody(TypeElement element) {
-        ClassName className = ClassName.get(element);
-        CodeBlock.Builder builder = CodeBlock.builder();
-        builder.addStatement("$T obj", className);
-        addNewObjectStatement(builder, element, "obj", Integer.MAX_VALUE);
-        return builder
-                .addStatement("$T.assertNotNull(obj.toString())", Assert.class)
-                .build();
+    /**
+     * Every file has the element as its only originating element, as Gradle requires of isolating processors.
+     */
+    private void write(Filer filer, TestGenerator.Source source, Element element) throws IOException {
+        JavaFileObject file = filer.createSourceFile(source.getQualifiedName(), element);
+        try (Writer writer = file.openWriter()) {
+            writer.write(source.getText());
+        }
+    }
+
+    /**
+     * LombokShard suites in the package the targets have in common, numbered by round too if a previous round wrote some.
+     * As they refer to every test class of the round, every target is their originating element.
+     */
+    private void writeShards(Filer filer, Map<String, Long> costs, List<TypeElement> targets) throws IOException {
+        String packageName = Shards.commonPackage(targets.stream()
+                .map(e -> ClassName.get(e).packageName())
+                .collect(Collectors.toList()));
+        List<List<String>> shards = Shards.balance(costs, options.getShards());
+        List<Long> totals = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            ClassName className = ClassName.get(packageName, "LombokShard" + (i + 1) + (shardsWritten ? "_" + round : ""));
+            TypeSpec.Builder suite = Shards.suite(className, shards.get(i)).toBuilder();
+            targets.forEach(suite::addOriginatingElement);
+            JavaFile.builder(packageName, suite.build()).build().writeTo(filer);
+            totals.add(shards.get(i).stream().mapToLong(costs::get).sum());
+        }
+        shardsWritten = true;
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, String.format(
+                "%d test classes in %d shards of predicted cost %s", costs.size(), shards.size(), totals));
+    }
+
+    /**
+     * LombokFixtures of the package, numbered by round if a previous round already wrote one.
+     */
+    private ClassName fixtureClass(String packageName) {
+        return fixtureClasses.computeIfAbsent(packageName, p -> {
+            ClassName className = ClassName.get(p, "LombokFixtures");
+            if (writtenFixtureClasses.contains(className)) {
+                className = ClassName.get(p, "LombokFixtures" + round);
+            }
+            writtenFixtureClasses.add(className);
+            return className;
+        });
+    }
+
+    private TypeSpec fixturesTypeSpec(String packageName, Map<String, MethodSpec> factories) {
+        TypeSpec.Builder builder = TypeSpec.classBuilder(fixtureClass(packageName))
+                .addModifiers(Modifier.PUBLIC, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder().addModifiers(Modifier.PRIVATE).build());
+        fixtureOrigins.get(packageName).forEach(builder::addOriginatingElement);
+        new TreeMap<>(factories).values().forEach(factory ->
+                builder.addMethod(factory.toBuilder().addModifiers(Modifier.STATIC).build()));
+        return builder.build();
+    }
+
+    /**
+     * Analyzes an element, once per round; every generation path reads the result from {@link #models}.
+     */
+    private ElementModel model(TypeElement element) {
+        ElementModel model = analyze(element);
+        models.put(element, model);
+        return model;
+    }
+
+    private ElementModel analyze(TypeElement element) {
+        AllocationBudget budget = element.getAnnotation(AllocationBudget.class);
+        return new ElementModel(
+                ClassName.get(element),
+                PackageAndClass.of(element).getClassName(),
+                Collections.unmodifiableList(analyzeFields(element, testFields(element))),
+                needsFillConstructor(element),
+                hasToString(element),
+                hasHashCodeEquals(element),
+                options.isAllocation() || budget != null,
+                budget != null && budget.equalsMaxBytes() >= 0 ? budget.equalsMaxBytes() : options.getEqualsMaxBytes(),
+                budget != null && budget.toStringMaxBytes() >= 0 ? budget.toStringMaxBytes() : options.getToStringMaxBytes());
+    }
+
+    private boolean hasHashCodeEquals(Element element) {
+        return capabilities.getOrDefault(element, Capabilities.NONE).isLombokEquals();
+    }
+
+    private boolean hasToString(Element element) {
+        return capabilities.getOrDefault(element, Capabilities.NONE).isLombokToString();
     }
 
-    private boolean needsFillConstructor(TypeElement element) {
-        return element.getAnnotation(Value.class) != null || element.getAnnotation(AllArgsConstructor.class) != null;
+    private boolean needsFillConstructor(Element element) {
+        return capabilities.getOrDefault(element, Capabilities.NONE).isFillConstructor();
     }
 
     private Predicate<String> testFields(TypeElement element) {
+        if (options.getDetection() == Detection.STRUCTURE) {
+            Set<String> read = equalsFields(element);
+            if (read == null) {
+                return name -> true;
+            }
+            return name -> read.contains(name) || Capabilities.getters(name).stream().anyMatch(read::contains);
+        }
         EqualsAndHashCode annotation = element.getAnnotation(EqualsAndHashCode.class);
         if (annotation == null) {
             return name -> true;
@@ -139,442 +472,171 @@ public class Processor extends AbstractProcessor {
         return name -> true;
     }
 
-    private List<TypeAndName> fields(TypeElement element) {
-        Predicate<String> testFields = testFields(element);
+    /**
+     * Members the equals method of the element's class file reads, or null when it cannot be read.
+     */
+    private Set<String> equalsFields(TypeElement element) {
+        String path = processingEnv.getElementUtils().getBinaryName(element).toString().replace('.', '/') + ".class";
+        try (InputStream in = processingEnv.getFiler().getResource(StandardLocation.CLASS_PATH, "", path).openInputStream()) {
+            return EqualsFields.read(in);
+        } catch (IOException | RuntimeException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                    "Cannot read " + path + "; equals is assumed to compare every field: " + e, element);
+            return null;
+        }
+    }
+
+    private List<TypeAndName> analyzeFields(TypeElement element, Predicate<String> testFields) {
         return element.getEnclosedElements().stream()
                 .filter(e -> e.getKind() == ElementKind.FIELD && ! e.getModifiers().contains(Modifier.STATIC))
                 .map(e -> (VariableElement)e)
-                .map(e -> new TypeAndName(e.asType(), e.getSimpleName(), testValueOfType(e.asType(), e.getSimpleName(), testFields)))
+                .map(e -> new TypeAndName(TypeName.get(e.asType()), e.getSimpleName().toString(),
+                        testValueOfType(e.asType(), e.getSimpleName().toString()),
+                        options.isHashDistribution() || options.isFuzz() ? randomValueOfType(e.asType(), e.getSimpleName().toString()) : null,
+                        options.isScaling() ? sizedValueOfType(e.asType(), e.getSimpleName().toString()) : null,
+                        testFields.test(e.getSimpleName().toString())))
                 .collect(Collectors.toList());
     }
 
-    private MethodSpec equalsTestSpec(TypeElement element) {
-        return MethodSpec.methodBuilder("testEquals")
-                .addModifiers(Modifier.PUBLIC)
-                .addAnnotation(Test.class)
-                .addCode(equalsBody(element))
-                .build();
-    }
-
-    private CodeBlock equalsBody(TypeElement element) {
-        ClassName className = ClassName.get(element);
-        CodeBlock.Builder builder = CodeBlock.builder()
-                .addStatement("$T obj1", className)
-                .addStatement("$T obj2", className);
-
-        List<TypeAndName> fields = fields(element);
-        List<List<PlaceholderValue>> values = values(fields);
-
-        for (List<PlaceholderValue> value : values) {
-            for (List<PlaceholderValue> value2 : values) {
-                addNewObjectStatement(builder, element, "obj1", value);
-                addNewObjectStatement(builder, element, "obj2", value2);
-                String eq = value == value2 ? "" : "Not";
-                builder.addStatement("$T.assert" + eq + "Equals(obj1, obj2)", Assert.class);
+    private List<PlaceholderValue> testValueOfType(TypeMirror type, String name) {
+        if (type instanceof DeclaredType) {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            if (targetElements.contains(element) || index.containsKey(ClassName.get(element))) {
+                ClassName className = ClassName.get(element);
+                return Arrays.asList(
+                        targetFactory(name, className, 1),
+                        targetFactory(name, className, 2),
+                        new PlaceholderValue("$L", name, null)
+                );
             }
         }
-
-        builder.addStatement("$T.assertEquals(obj1, obj1)", Assert.class);
-        builder.addStatement("$T.assertNotEquals(obj1, null)", Assert.class);
-
-        return builder.build();
-    }
-
-    private List<PlaceholderValue> valuesNull(List<TypeAndName> fields) {
-        List<TypeAndName> nullValues = fields.stream().map(e -> {
-            int size = e.getValues().size();
-            return new TypeAndName(e.getType(), e.getName(), e.getValues().subList(size - 1, size));
-        }).collect(Collectors.toList());
-        List<List<PlaceholderValue>> values = values(nullValues);
-        return values.get(values.size() - 1);
-    }
-
-    private List<List<PlaceholderValue>> values(List<TypeAndName> fields) {
-        List<List<PlaceholderValue>> result = new ArrayList<>();
-        values(fields, new ArrayList<>(), result, false);
-        return result;
-    }
-
-    private void values(List<TypeAndName> fields, List<PlaceholderValue> buf, List<List<PlaceholderValue>> result, boolean containsAlt) {
-        if (fields.isEmpty()) {
-            result.add(buf);
-            return;
+        Optional<ValueProvider> provider = valueProviders.get(type, valueContext);
+        if (provider.isPresent()) {
+            return provider.get().values(type, name, valueContext);
         }
-
-        TypeAndName head = fields.get(0);
-        List<PlaceholderValue> values = head.getValues();
-
-        if (containsAlt) {
-            ArrayList<PlaceholderValue> tmp = new ArrayList<>(buf);
-            tmp.add(values.get(0));
-            values(fields.subList(1, fields.size()), tmp, result, true);
-        } else {
-            boolean first = true;
-            for (PlaceholderValue value : values) {
-                ArrayList<PlaceholderValue> tmp = new ArrayList<>(buf);
-                tmp.add(value);
-                values(fields.subList(1, fields.size()), tmp, result, ! first);
-                first = false;
-            }
+        if (type instanceof DeclaredType && compiledTarget((TypeElement) ((DeclaredType) type).asElement())) {
+            ClassName className = ClassName.get((TypeElement) ((DeclaredType) type).asElement());
+            return Arrays.asList(
+                    targetFactory(name, className, 1),
+                    targetFactory(name, className, 2),
+                    new PlaceholderValue("$L", name, null)
+            );
         }
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                String.format("No test values for type %s; %s is left null", type, name));
+        return Arrays.asList(new PlaceholderValue("$L", name, null));
     }
 
-    private MethodSpec hashCodeTestSpec(TypeElement element) {
-        return MethodSpec.methodBuilder("testHashCode")
-                .addModifiers(Modifier.PUBLIC)
-                .addAnnotation(Test.class)
-                .addCode(hashCodeBody(element))
-                .build();
-    }
-
-    private CodeBlock hashCodeBody(TypeElement element) {
+    /**
+     * Whether a field type is a Lombok class that is not among the targets, as when Gradle compiles the classes
+     * referring to it on their own against its class file. Its own annotations tell, or its members once they are gone.
+     * It is analyzed into {@link #index} for the factories of its objects, without tests of its own.
+     */
+    private boolean compiledTarget(TypeElement element) {
         ClassName className = ClassName.get(element);
-        CodeBlock.Builder builder = CodeBlock.builder();
-        builder.addStatement("$T obj1", className);
-        builder.addStatement("$T obj2", className);
-
-        List<TypeAndName> fields = fields(element);
-        List<List<PlaceholderValue>> values = values(fields);
-
-        addNewObjectStatement(builder, element, "obj1", values.get(0));
-        addNewObjectStatement(builder, element, "obj2", values.get(0));
-        builder.addStatement("$T.assertEquals(obj1.hashCode(), obj2.hashCode())", Assert.class);
-
-        List<PlaceholderValue> nullValues = valuesNull(fields);
-
-        addNewObjectStatement(builder, element, "obj1", nullValues);
-        addNewObjectStatement(builder, element, "obj2", nullValues);
-        builder.addStatement("$T.assertEquals(obj1.hashCode(), obj2.hashCode())", Assert.class);
-
-        return builder.build();
-    }
-
-    private void addNewObjectStatement(CodeBlock.Builder builder, TypeElement element, String objName, List<PlaceholderValue> values) {
-        ClassName className = ClassName.get(element);
-        if (needsFillConstructor(element)) {
-            String format = values.stream().map(v -> v.getPlaceholder()).collect(Collectors.joining(", "));
-            Object[] objects = values.stream().map(v -> v.getValue()).toArray();
-            builder.add(objName + " = new $T(", className);
-            builder.add(format + ");\n", objects);
-        } else {
-            builder.addStatement(objName + " = new $T()", className);
-            for (PlaceholderValue value : values) {
-                builder.addStatement(objName + ".set" + setter(value.getName()) + "(" + value.getPlaceholder() + ")", value.getValue());
-            }
+        Boolean known = compiledTargets.get(className);
+        if (known != null) {
+            return known;
         }
-    }
-
-    private void addNewObjectStatement(CodeBlock.Builder builder, TypeElement element, String objName, int n) {
-        ClassName className = ClassName.get(element);
-        List<Indexed<TypeAndName>> fields = withIndex(fields(element));
-        List<PlaceholderValue> values = fields.stream().map(indexed -> {
-            int valueIndex = indexed.getIndex() >= n ? 2 : 1;
-            return testValueOfType2(indexed.getValue().getType(), indexed.getValue().getName(), valueIndex);
-        }).collect(Collectors.toList());
-
-        if (needsFillConstructor(element)) {
-            String format = values.stream().map(v -> v.getPlaceholder()).collect(Collectors.joining(", "));
-            Object[] objects = values.stream().map(v -> v.getValue()).toArray();
-            builder.add(objName + " = new $T(", className);
-            builder.add(format + ");\n", objects);
-        } else {
-            builder.addStatement(objName + " = new $T()", className);
-            for (PlaceholderValue value : values) {
-                builder.addStatement(objName + ".set" + setter(value.getName()) + "(" + value.getPlaceholder() + ")", value.getValue());
+        Capabilities found = Capabilities.NONE;
+        // a class of the round left out of the targets, such as a deferred one, has no factories either
+        if (! capabilities.containsKey(element)
+                && ! element.getModifiers().contains(Modifier.PRIVATE) && ! element.getModifiers().contains(Modifier.ABSTRACT)) {
+            found = Capabilities.of(element);
+            if (! found.isTarget()) {
+                found = Capabilities.ofStructure(element);
             }
         }
-    }
-
-    private String setter(Name name) {
-        String s = name.toString();
-        if (s.startsWith("is")) {
-            s = s.substring(2);
+        // known before the analysis, for fields of its own type
+        compiledTargets.put(className, found.isTarget());
+        if (found.isTarget()) {
+            capabilities.put(element, found);
+            index.put(className, analyze(element));
         }
-        return s.substring(0, 1).toUpperCase() + s.substring(1);
+        return found.isTarget();
     }
 
-    private List<PlaceholderValue> testValueOfType(TypeMirror type, Name name, Predicate<String> testFields) {
-        List<PlaceholderValue> values = testValueOfType(type, name);
-        if (! testFields.test(name.toString())) {
-            return values.subList(0, 1);
-        }
-        return values;
-    }
-
-    private List<PlaceholderValue> testValueOfType(TypeMirror type, Name name) {
-        switch (type.toString().split("<")[0]) {
-            case "java.lang.String":
-                return Arrays.asList(
-                        new PlaceholderValue("$S", name, String.format("%s%d", name.toString(), 1)),
-                        new PlaceholderValue("$S", name, String.format("%s%d", name.toString(), 2)),
-                        new PlaceholderValue("$L", name, null)
-                );
-            case "int":
-                return Arrays.asList(
-                        new PlaceholderValue("$L", name, 1),
-                        new PlaceholderValue("$L", name, 2)
-                );
-            case "java.lang.Integer":
-                return Arrays.asList(
-                        new PlaceholderValue("$L", name, 1),
-                        new PlaceholderValue("$L", name, 2),
-                        new PlaceholderValue("$L", name, null)
-                );
-            case "long":
-                return Arrays.asList(
-                        new PlaceholderValue("$LL", name, 1L),
-                        new PlaceholderValue("$LL", name, 2L)
-                );
-            case "java.lang.Long":
-                return Arrays.asList(
-                        new PlaceholderValue("$LL", name, 1L),
-                        new PlaceholderValue("$LL", name, 2L),
-                        new PlaceholderValue("$L", name, null)
-                );
-            case "boolean":
-                return Arrays.asList(
-                        new PlaceholderValue("$L", name, true),
-                        new PlaceholderValue("$L", name, false)
-                );
-            case "java.lang.Boolean":
-                return Arrays.asList(
-                        new PlaceholderValue("$L", name, true),
-                        new PlaceholderValue("$L", name, false),
-                        new PlaceholderValue("$L", name, null)
-                );
-            case "java.util.Date":{
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createDate(1));
-                MethodSpec factory2 = factories.computeIfAbsent(new FactoryKey(element, 2), e -> createDate(2));
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$N()", name, factory2),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.time.LocalDate": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createLocalDate(1));
-                MethodSpec factory2 = factories.computeIfAbsent(new FactoryKey(element, 2), e -> createLocalDate(2));
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$N()", name, factory2),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.time.LocalTime": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createLocalTime(1));
-                MethodSpec factory2 = factories.computeIfAbsent(new FactoryKey(element, 2), e -> createLocalTime(2));
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$N()", name, factory2),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.time.LocalDateTime": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createLocalDateTime(1));
-                MethodSpec factory2 = factories.computeIfAbsent(new FactoryKey(element, 2), e -> createLocalDateTime(2));
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$N()", name, factory2),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.util.List": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createList());
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.util.Set": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createSet());
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            case "java.util.Map": {
-                DeclaredType dtype = (DeclaredType) type;
-                TypeElement element = (TypeElement) dtype.asElement();
-                MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createMap());
-
-                return Arrays.asList(
-                        new PlaceholderValue("$N()", name, factory1),
-                        new PlaceholderValue("$L", name, null)
-                );
-            }
-            default:
-                if (type instanceof DeclaredType) {
-                    DeclaredType dtype = (DeclaredType) type;
-                    TypeElement element = (TypeElement) dtype.asElement();
-                    if (targetElements.contains(element)) {
-                        MethodSpec factory1 = factories.computeIfAbsent(new FactoryKey(element, 1), e -> createFactoryFor(e.getElement(), 1));
-                        MethodSpec factory2 = factories.computeIfAbsent(new FactoryKey(element, 2), e -> createFactoryFor(e.getElement(), 2));
-                        return Arrays.asList(
-                                new PlaceholderValue("$N()", name, factory1),
-                                new PlaceholderValue("$N()", name, factory2),
-                                new PlaceholderValue("$L", name, null)
-                        );
-                    }
-                }
-                System.out.printf("unknown type:%s\n", type);
-                return Arrays.asList(new PlaceholderValue("$L", name, null));
-        }
-    }
-    private PlaceholderValue testValueOfType2(TypeMirror type, Name name, int n) {
-        return testValueOfType(type, name).get(n - 1);
-//        switch (type.toString()) {
-//            case "java.lang.String":
-//                return new PlaceholderValue("$S", name, String.format("%s%d", name.toString(), n));
-//            case "int":
-//            case "java.lang.Integer":
-//                return new PlaceholderValue("$L", name, n);
-//            case "long":
-//            case "java.lang.Long":
-//                return new PlaceholderValue("$L", name, (long) n);
-//            default:
-//                if (type instanceof DeclaredType) {
-//                    DeclaredType dtype = (DeclaredType) type;
-//                    TypeElement element = (TypeElement) dtype.asElement();
-//                    if (targetElements.contains(element)) {
-//                        MethodSpec factory = factories.computeIfAbsent(new FactoryKey(element, n), e -> createFactoryFor(e.getElement(), n));
-//                        return new PlaceholderValue("$N()", name, factory);
-//                    }
-//                }
-//                return new PlaceholderValue("$L", name, null);
-//        }
+    /**
+     * A factory of an object of another target class, built from that class's model when a generator first uses it.
+     */
+    private PlaceholderValue targetFactory(String name, ClassName className, int n) {
+        String method = factories.register(Arrays.asList(className, n), "create" + className.simpleName() + n,
+                generator -> generator.createFactoryFor(className, n));
+        return new PlaceholderValue("$N()", name, method, method);
     }
 
-    private MethodSpec createList() {
-        return MethodSpec.methodBuilder("createList")
-                .returns(List.class)
-                .addStatement("return $T.asList()", Arrays.class)
-                .build();
+    /**
+     * @return null when the type has no random values
+     */
+    private PlaceholderValue randomValueOfType(TypeMirror type, String name) {
+        return valueProviders.get(type, valueContext)
+                .map(provider -> provider.randomValue(type, name, valueContext))
+                .orElse(null);
     }
 
-    private MethodSpec createSet() {
-        return MethodSpec.methodBuilder("createSet")
-                .returns(Set.class)
-                .addStatement("return $T.emptySet()", Collections.class)
-                .build();
+    /**
+     * @return null when the type has no indexed values
+     */
+    private PlaceholderValue indexedValueOfType(TypeMirror type, String name) {
+        return valueProviders.get(type, valueContext)
+                .map(provider -> provider.indexedValue(type, name, valueContext))
+                .orElse(null);
     }
 
-    private MethodSpec createMap() {
-        return MethodSpec.methodBuilder("createMap")
-                .returns(Map.class)
-                .addStatement("return $T.emptyMap()", Collections.class)
-                .build();
+    /**
+     * @return null when the type is not a collection that can be filled
+     */
+    private PlaceholderValue sizedValueOfType(TypeMirror type, String name) {
+        return valueProviders.get(type, valueContext)
+                .map(provider -> provider.sizedValue(type, name, valueContext))
+                .orElse(null);
     }
 
-    private MethodSpec createDate(int n) {
-        return MethodSpec.methodBuilder("createDate" + n)
-                .returns(Date.class)
-                .addStatement("$T date = new $T()", Date.class, Date.class)
-                .addStatement("date.setTime($LL)", System.currentTimeMillis() + n * 1000)
-                .addStatement("return date")
-                .build();
-    }
+    private final ValueContext valueContext = new ValueContext() {
+        @Override
+        public ProcessingEnvironment getProcessingEnvironment() {
+            return processingEnv;
+        }
 
-    private MethodSpec createLocalTime(int n) {
-        return MethodSpec.methodBuilder("createLocalTime" + n)
-                .returns(LocalTime.class)
-                .addStatement("return LocalTime.ofSecondOfDay($LL)", n * 1000)
-                .build();
-    }
+        @Override
+        public long getSeed() {
+            return options.getSeed();
+        }
 
-    private MethodSpec createLocalDate(int n) {
-        return MethodSpec.methodBuilder("createLocalDate" + n)
-                .returns(LocalDate.class)
-                .addStatement("return LocalDate.ofEpochDay($LL)", System.currentTimeMillis() / 1000 / 60 / 60 / 24 + n)
-                .build();
-    }
+        @Override
+        public PlaceholderValue factory(String name, String method, Supplier<MethodSpec> spec) {
+            String unique = factories.register(method, method, generator -> spec.get());
+            return new PlaceholderValue("$N()", name, unique, unique);
+        }
 
-    private MethodSpec createLocalDateTime(int n) {
-        return MethodSpec.methodBuilder("createLocalDateTime" + n)
-                .returns(LocalDateTime.class)
-                .addStatement("return LocalDateTime.of($T.ofEpochDay($LL), $T.ofSecondOfDay($LL))",
-                        LocalDate.class, System.currentTimeMillis() / 1000 / 60 / 60 / 24 + n,
-                        LocalTime.class, n * 1000)
-                .build();
-    }
+        @Override
+        public List<PlaceholderValue> values(TypeMirror type, String name) {
+            return testValueOfType(type, name);
+        }
 
-    private MethodSpec createFactoryFor(TypeElement e, int n) {
-        CodeBlock.Builder builder = CodeBlock.builder();
-        builder.addStatement("$T obj", ClassName.get(e));
-        addNewObjectStatement(builder, e, "obj", n);
-        builder.addStatement("return obj");
+        @Override
+        public PlaceholderValue randomValue(TypeMirror type, String name) {
+            return randomValueOfType(type, name);
+        }
 
-        return MethodSpec.methodBuilder("create" + e.getSimpleName() + n)
-                .returns(ClassName.get(e))
-                .addCode(builder.build())
-                .build();
-    }
+        @Override
+        public PlaceholderValue indexedValue(TypeMirror type, String name) {
+            return indexedValueOfType(type, name);
+        }
+    };
 
     @Value
     private static class PackageAndClass {
         String packageName;
         String className;
 
-        static PackageAndClass of(Element element) {
-            Element packageElement = element.getEnclosingElement();
-            while (packageElement.getEnclosingElement() != null) {
-                packageElement = packageElement.getEnclosingElement();
-            }
-            String packageName = ((QualifiedNameable) packageElement).getQualifiedName().toString();
-            String name = element.toString();
-//            int index = name.lastIndexOf('.');
-            return new PackageAndClass(packageName, name.substring(packageName.length() + 1).replace('.', '_'));
-        }
-    }
-
-    @Value
-    private static class TypeAndName {
-        TypeMirror type;
-        Name name;
-        List<PlaceholderValue> values;
-    }
-
-    @Value
-    static class Indexed<T> {
-        T value;
-        int index;
-
-        static <T> List<Indexed<T>> withIndex(List<T> list) {
-            List<Indexed<T>> result = new ArrayList<>();
-            for (int i = 0; i < list.size(); i++) {
-                result.add(new Indexed<>(list.get(i), i));
-            }
-            return result;
+        /**
+         * A nested class is named after its enclosing classes too, joined with {@code _}.
+         */
+        static PackageAndClass of(TypeElement element) {
+            // from the names of the classes, as on JDK 9+ a package is enclosed by its module
+            ClassName className = ClassName.get(element);
+            return new PackageAndClass(className.packageName(), String.join("_", className.simpleNames()));
         }
     }
-
-    @Value
-    private static class PlaceholderValue {
-        String placeholder;
-        Name name;
-        Object value;
-    }
-
-    @Value
-    private static class FactoryKey {
-        TypeElement element;
-        int n;
-    }
 }
@@ -0,0 +1,90 @@
+package sample;
+
+import com.squareup.javapoet.AnnotationSpec;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.TypeSpec;
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import javax.lang.model.element.Modifier;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Suites that divide the test classes of a round between {@link Options#getShards()} test forks,
+ * balanced by the predicted cost of the classes.
+ *
+ * Generated test classes keep no static state, so shards can also run concurrently in one JVM,
+ * for example with JUnit's {@code ParallelComputer}.
+ */
+class Shards {
+    /**
+     * Generated classes holding tests; not their base classes or benchmarks.
+     */
+    private static final Pattern TEST_CLASS = Pattern.compile(".*_LombokTest\\d*");
+
+    private Shards() {
+    }
+
+    static boolean isTestClass(String qualifiedName) {
+        return TEST_CLASS.matcher(qualifiedName).matches();
+    }
+
+    /**
+     * Longest processing time first: the most costly classes are placed first, each into the shard that costs least
+     * so far. Shards left empty are dropped.
+     *
+     * @param costs predicted cost of each test class, by qualified name
+     */
+    static List<List<String>> balance(Map<String, Long> costs, int count) {
+        List<String> classes = new ArrayList<>(costs.keySet());
+        classes.sort(Comparator.comparing((String c) -> costs.get(c)).reversed().thenComparing(c -> c));
+        List<List<String>> shards = new ArrayList<>();
+        long[] totals = new long[count];
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+        for (String testClass : classes) {
+            int least = 0;
+            for (int i = 1; i < count; i++) {
+                if (totals[i] < totals[least]) {
+                    least = i;
+                }
+            }
+            shards.get(least).add(testClass);
+            totals[least] += costs.get(testClass);
+        }
+        shards.forEach(Collections::sort);
+        return shards.stream().filter(s -> ! s.isEmpty()).collect(Collectors.toList());
+    }
+
+    static TypeSpec suite(ClassName className, List<String> testClasses) {
+        AnnotationSpec.Builder suiteClasses = AnnotationSpec.builder(Suite.SuiteClasses.class);
+        for (String testClass : testClasses) {
+            suiteClasses.addMember("value", "$T.class", ClassName.bestGuess(testClass));
+        }
+        return TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(AnnotationSpec.builder(RunWith.class).addMember("value", "$T.class", Suite.class).build())
+                .addAnnotation(suiteClasses.build())
+                .build();
+    }
+
+    /**
+     * The package the classes have in common, down to the default package.
+     */
+    static String commonPackage(Collection<String> packageNames) {
+        String common = null;
+        for (String packageName : packageNames) {
+            if (common == null) {
+                common = packageName;
+            }
+            while (! common.isEmpty() && ! (packageName.equals(common) || packageName.startsWith(common + "."))) {
+                int dot = common.lastIndexOf('.');
+                common = dot < 0 ? "" : common.substring(0, dot);
+            }
+        }
+        return common == null ? "" : common;
+    }
+}
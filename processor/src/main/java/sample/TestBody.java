@@ -0,0 +1,73 @@
+package sample;
+
+import com.squareup.javapoet.CodeBlock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of a generated test, kept as independent units so that it can be split into several methods.
+ *
+ * Every chunk repeats the prologue (local declarations); the epilogue closes the last chunk.
+ */
+class TestBody {
+    private final CodeBlock.Builder prologue = CodeBlock.builder();
+    private final List<CodeBlock> units = new ArrayList<>();
+    private final CodeBlock.Builder epilogue = CodeBlock.builder();
+
+    CodeBlock.Builder prologue() {
+        return prologue;
+    }
+
+    CodeBlock.Builder epilogue() {
+        return epilogue;
+    }
+
+    TestBody add(CodeBlock unit) {
+        units.add(unit);
+        return this;
+    }
+
+    /**
+     * @param maxBytes      estimated bytecode size a chunk should stay under
+     * @param maxStatements statements a chunk should stay under
+     * @return method bodies, at least one
+     */
+    List<CodeBlock> split(int maxBytes, int maxStatements) {
+        CodeBlock prologue = this.prologue.build();
+        CodeBlock epilogue = this.epilogue.build();
+        int fixed = BytecodeSize.of(prologue) + BytecodeSize.of(epilogue);
+        int fixedStatements = statements(prologue) + statements(epilogue);
+
+        List<CodeBlock> chunks = new ArrayList<>();
+        CodeBlock.Builder chunk = CodeBlock.builder().add(prologue);
+        int size = fixed;
+        int statements = fixedStatements;
+        boolean empty = true;
+        for (CodeBlock unit : units) {
+            int unitSize = BytecodeSize.of(unit);
+            int unitStatements = statements(unit);
+            if (! empty && (size + unitSize > maxBytes || statements + unitStatements > maxStatements)) {
+                chunks.add(chunk.build());
+                chunk = CodeBlock.builder().add(prologue);
+                size = fixed;
+                statements = fixedStatements;
+            }
+            chunk.add(unit);
+            size += unitSize;
+            statements += unitStatements;
+            empty = false;
+        }
+        chunks.add(chunk.add(epilogue).build());
+        return chunks;
+    }
+
+    private static int statements(CodeBlock code) {
+        String text = code.toString();
+        int count = 0;
+        for (int i = text.indexOf(";\n"); i >= 0; i = text.indexOf(";\n", i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
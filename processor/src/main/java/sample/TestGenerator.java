@@ -0,0 +1,1661 @@
+package sample;
+
+import com.squareup.javapoet.*;
+import lombok.Value;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import javax.lang.model.element.Modifier;
+import java.lang.invoke.MethodHandles;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+import static sample.Indexed.withIndex;
+
+/**
+ * Generates the test sources of one class from its {@link ElementModel}.
+ *
+ * A generator touches no javac objects and shares only thread-safe state with other generators,
+ * so the classes of a round can be generated in parallel; each needs a generator of its own.
+ */
+class TestGenerator {
+    /**
+     * JMH annotations of the generated benchmarks, only named so that the processor does not depend on jmh-core.
+     */
+    private static final String JMH = "org.openjdk.jmh.annotations";
+    private static final ClassName BENCHMARK = ClassName.get(JMH, "Benchmark");
+    private static final ClassName BENCHMARK_MODE = ClassName.get(JMH, "BenchmarkMode");
+    private static final ClassName MODE = ClassName.get(JMH, "Mode");
+    private static final ClassName OUTPUT_TIME_UNIT = ClassName.get(JMH, "OutputTimeUnit");
+    private static final ClassName SCOPE = ClassName.get(JMH, "Scope");
+    private static final ClassName SETUP = ClassName.get(JMH, "Setup");
+    private static final ClassName STATE = ClassName.get(JMH, "State");
+    /**
+     * Classes of the runtime module called by the tests of {@link Emission#RUNTIME}, only named like the JMH ones.
+     */
+    private static final ClassName CONTRACT_CHECKER = ClassName.get("sample", "ContractChecker");
+    private static final ClassName CLASS_DESCRIPTOR = ClassName.get("sample", "ClassDescriptor");
+
+    private final Options options;
+    private final Map<ClassName, ElementModel> models;
+    private final TypeGraph graph;
+    private final Map<String, ClassName> fixtureClasses;
+    private final Factories factories;
+    private Set<String> used = new LinkedHashSet<>();
+    private final List<MethodSpec> rows = new ArrayList<>();
+    private MethodSpec descriptor;
+    private long combinationNanos;
+    private int combinations;
+    private long deadline;
+    private boolean expired;
+    /**
+     * Rows of the covering array of pairwise combination, built when the budget is checked.
+     */
+    private List<int[]> covering;
+    private final List<String> warnings = new ArrayList<>();
+
+    /**
+     * @param models         all target classes analyzed so far, for factories of fields of those types
+     * @param graph          the references among them, to leave null the fields that would make factories recurse
+     * @param fixtureClasses LombokFixtures class of each package, when factories are shared per package
+     */
+    TestGenerator(Options options, Map<ClassName, ElementModel> models, TypeGraph graph, Map<String, ClassName> fixtureClasses, Factories factories) {
+        this.options = options;
+        this.models = models;
+        this.graph = graph;
+        this.fixtureClasses = fixtureClasses;
+        this.factories = factories;
+    }
+
+    /**
+     * Factories used by the code generated so far.
+     */
+    Set<String> getUsed() {
+        return used;
+    }
+
+    Generated generate(ElementModel model) {
+        long start = System.nanoTime();
+        deadline = options.getMaxGenerationMillis() > 0
+                ? start + TimeUnit.MILLISECONDS.toNanos(options.getMaxGenerationMillis())
+                : Long.MAX_VALUE;
+        List<MethodSpec> tests = new ArrayList<>();
+        if (model.isLombokToString()) {
+            tests.addAll(toStringTestSpec(model));
+        }
+        if (model.isLombokEquals()) {
+            tests.addAll(equalsTestSpec(model));
+            tests.addAll(hashCodeTestSpec(model));
+            if (options.isHashDistribution()) {
+                tests.addAll(hashDistributionTestSpec(model));
+            }
+            if (options.isFuzz()) {
+                tests.addAll(equalsContractTestSpec(model));
+            }
+        }
+        if (model.isAllocation()) {
+            tests.addAll(allocationTestSpec(model));
+        }
+        if (options.isScaling() && model.getFields().stream().anyMatch(field -> field.getSized() != null)) {
+            tests.addAll(scalingTestSpec(model));
+        }
+        if (options.isConcurrency()) {
+            tests.addAll(concurrencyTestSpec(model));
+        }
+
+        String packageName = model.getClassName().packageName();
+        Map<String, MethodSpec> shared = new HashMap<>();
+        Map<String, MethodSpec> testFactories = factories(used);
+        boolean testShared = share(testFactories, shared);
+        List<MethodSpec> helpers = new ArrayList<>();
+        if (! testShared) {
+            helpers.addAll(testFactories.values());
+        }
+        helpers.addAll(rows);
+
+        List<TypeSpec> typeSpecs = testTypeSpecs(model.getTestClassName() + "_LombokTest", tests, helpers);
+        SizeStats stats = SizeStats.of(model.getTestClassName() + "_LombokTest", typeSpecs);
+
+        List<JavaFile> files = new ArrayList<>();
+        for (TypeSpec typeSpec : typeSpecs) {
+            files.add(javaFile(packageName, typeSpec, testShared));
+        }
+
+        if (options.isBenchmarks()) {
+            used = new LinkedHashSet<>();
+            TypeSpec.Builder bench = benchTypeSpec(model, model.getTestClassName() + "_LombokBench");
+            Map<String, MethodSpec> benchFactories = factories(used);
+            boolean benchShared = share(benchFactories, shared);
+            if (! benchShared) {
+                bench.addMethods(benchFactories.values());
+            }
+            files.add(javaFile(packageName, bench.build(), benchShared));
+        }
+        long built = System.nanoTime();
+        List<Source> sources = files.stream().map(Source::of).collect(Collectors.toList());
+
+        Metrics.Element metrics = new Metrics.Element(model.getClassName().toString());
+        metrics.setCombinationNanos(combinationNanos);
+        metrics.setCombinations(combinations);
+        metrics.setBuildNanos(built - start - combinationNanos);
+        metrics.setRenderNanos(System.nanoTime() - built);
+        return new Generated(sources, shared, stats, metrics, warnings);
+    }
+
+    /**
+     * Adds the factories to those shared through the fixtures of the package, when they are shared.
+     *
+     * @return whether the class using the factories should import them from the fixtures
+     */
+    private boolean share(Map<String, MethodSpec> factories, Map<String, MethodSpec> shared) {
+        if (options.getFixtures() != FixtureScope.PACKAGE || factories.isEmpty()) {
+            return false;
+        }
+        shared.putAll(factories);
+        return true;
+    }
+
+    private JavaFile javaFile(String packageName, TypeSpec typeSpec, boolean shared) {
+        JavaFile.Builder file = JavaFile.builder(packageName, typeSpec);
+        if (shared) {
+            file.addStaticImport(fixtureClasses.get(packageName), "*");
+        }
+        return file.build();
+    }
+
+    /**
+     * Puts tests and their helpers into one class, or, when that is estimated to exceed
+     * {@link Options#getMaxClassBytes()}, the helpers into an abstract base class extended by several test classes.
+     */
+    private List<TypeSpec> testTypeSpecs(String className, List<MethodSpec> tests, List<MethodSpec> helpers) {
+        int helperSize = helpers.stream().mapToInt(BytecodeSize::of).sum();
+        int testSize = tests.stream().mapToInt(BytecodeSize::of).sum();
+        if (helperSize + testSize <= options.getMaxClassBytes()) {
+            return Collections.singletonList(TypeSpec.classBuilder(className)
+                    .addModifiers(Modifier.PUBLIC)
+                    .addMethods(tests)
+                    .addMethods(helpers)
+                    .build());
+        }
+
+        List<TypeSpec> result = new ArrayList<>();
+        String baseName = className + "Base";
+        result.add(TypeSpec.classBuilder(baseName)
+                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                .addMethods(helpers)
+                .build());
+
+        List<MethodSpec> chunk = new ArrayList<>();
+        int size = 0;
+        for (MethodSpec test : tests) {
+            int testBytes = BytecodeSize.of(test);
+            if (! chunk.isEmpty() && size + testBytes > options.getMaxClassBytes()) {
+                result.add(testTypeSpec(className, result.size(), baseName, chunk));
+                chunk = new ArrayList<>();
+                size = 0;
+            }
+            chunk.add(test);
+            size += testBytes;
+        }
+        result.add(testTypeSpec(className, result.size(), baseName, chunk));
+        return result;
+    }
+
+    private TypeSpec testTypeSpec(String className, int n, String baseName, List<MethodSpec> tests) {
+        return TypeSpec.classBuilder(n == 1 ? className : className + n)
+                .addModifiers(Modifier.PUBLIC)
+                .superclass(ClassName.bestGuess(baseName))
+                .addMethods(tests)
+                .build();
+    }
+
+    /**
+     * Splits a test body into numbered methods of at most {@link Options#getMaxMethodBytes()} estimated bytes.
+     */
+    private List<MethodSpec> testSpecs(String name, TestBody body) {
+        List<CodeBlock> chunks = body.split(options.getMaxMethodBytes(), options.getMaxStatements());
+        List<MethodSpec> result = new ArrayList<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            result.add(MethodSpec.methodBuilder(chunks.size() == 1 ? name : name + "_" + (i + 1))
+                    .addModifiers(Modifier.PUBLIC)
+                    .addAnnotation(Test.class)
+                    .addCode(chunks.get(i))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * JMH benchmarks of the Lombok-generated methods, on objects built from the first values of the fields.
+     * The unequal objects differ from the base object in the first or last field equals compares.
+     */
+    private TypeSpec.Builder benchTypeSpec(ElementModel model, String className) {
+        ClassName type = model.getClassName();
+        TypeSpec.Builder builder = TypeSpec.classBuilder(className)
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(AnnotationSpec.builder(STATE).addMember("value", "$T.Benchmark", SCOPE).build())
+                .addAnnotation(AnnotationSpec.builder(BENCHMARK_MODE).addMember("value", "$T.AverageTime", MODE).build())
+                .addAnnotation(AnnotationSpec.builder(OUTPUT_TIME_UNIT).addMember("value", "$T.$L", TimeUnit.class, TimeUnit.NANOSECONDS).build());
+
+        List<TypeAndName> fields = model.getFields();
+        List<Integer> mutable = new ArrayList<>();
+        for (Indexed<TypeAndName> field : withIndex(fields)) {
+            if (field.getValue().isIncluded() && field.getValue().getValues().size() > 1) {
+                mutable.add(field.getIndex());
+            }
+        }
+
+        CodeBlock.Builder setup = CodeBlock.builder();
+        builder.addField(type, "base");
+        addNewObjectStatement(setup, model, "base", row(fields, new int[fields.size()]));
+        if (model.isLombokEquals()) {
+            builder.addField(type, "equal");
+            addNewObjectStatement(setup, model, "equal", row(fields, new int[fields.size()]));
+            if (! mutable.isEmpty()) {
+                builder.addField(type, "unequalFirstField");
+                builder.addField(type, "unequalLastField");
+                int[] first = new int[fields.size()];
+                first[mutable.get(0)] = 1;
+                addNewObjectStatement(setup, model, "unequalFirstField", row(fields, first));
+                int[] last = new int[fields.size()];
+                last[mutable.get(mutable.size() - 1)] = 1;
+                addNewObjectStatement(setup, model, "unequalLastField", row(fields, last));
+            }
+        }
+        builder.addMethod(MethodSpec.methodBuilder("setup")
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(SETUP)
+                .addCode(setup.build())
+                .build());
+
+        if (model.isLombokEquals()) {
+            builder.addMethod(benchmarkSpec("benchmarkHashCode", int.class, "base.hashCode()"));
+            builder.addMethod(benchmarkSpec("benchmarkEqualsEqual", boolean.class, "base.equals(equal)"));
+            if (! mutable.isEmpty()) {
+                builder.addMethod(benchmarkSpec("benchmarkEqualsUnequalFirstField", boolean.class, "base.equals(unequalFirstField)"));
+                builder.addMethod(benchmarkSpec("benchmarkEqualsUnequalLastField", boolean.class, "base.equals(unequalLastField)"));
+            }
+        }
+        if (model.isLombokToString()) {
+            builder.addMethod(benchmarkSpec("benchmarkToString", String.class, "base.toString()"));
+        }
+        return builder;
+    }
+
+    private MethodSpec benchmarkSpec(String name, Class<?> returns, String expression) {
+        return MethodSpec.methodBuilder(name)
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(BENCHMARK)
+                .returns(returns)
+                .addStatement("return " + expression)
+                .build();
+    }
+
+    private List<MethodSpec> toStringTestSpec(ElementModel model) {
+        if (options.getEmission() == Emission.RUNTIME) {
+            return checkerTestSpec(model, "testToString", "checkToString");
+        }
+        return testSpecs("testToString", toStringBody(model));
+    }
+
+    private TestBody toStringBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        TestBody body = new TestBody();
+        body.prologue().addStatement("$T obj", className);
+        CodeBlock.Builder builder = CodeBlock.builder();
+        addNewObjectStatement(builder, model, "obj", Integer.MAX_VALUE);
+        return body.add(builder
+                .addStatement("$T.assertNotNull(obj.toString())", Assert.class)
+                .build());
+    }
+
+    private List<MethodSpec> equalsTestSpec(ElementModel model) {
+        if (options.getEmission() == Emission.RUNTIME) {
+            return checkerTestSpec(model, "testEquals", "checkEquals");
+        }
+        return testSpecs("testEquals", equalsBody(model));
+    }
+
+    private TestBody equalsBody(ElementModel model) {
+        Combination combination = combination(model);
+        if (options.getEmission() == Emission.TABLE && ! model.getFields().isEmpty()) {
+            return tableEqualsBody(model, combination);
+        }
+        switch (combination) {
+            case PAIRWISE:
+            case MUTATION:
+                return rowsEqualsBody(model, combination);
+            default:
+                return exhaustiveEqualsBody(model);
+        }
+    }
+
+    /**
+     * The configured combination, or single-field mutation when it would compare more than
+     * {@link Options#getMaxCombinations()} objects. Pairwise combination is counted on its covering array,
+     * built only when the estimate from below is within the budget, and also falls back to mutation when building
+     * it takes longer than {@link Options#getMaxGenerationMillis()}.
+     */
+    private Combination combination(ElementModel model) {
+        Combination combination = options.getCombination();
+        long comparisons = comparisons(options, model, combination);
+        if (combination == Combination.PAIRWISE && comparisons <= options.getMaxCombinations()) {
+            covering = coveringArray(model.getFields().stream().mapToInt(f -> f.getValues().size()).toArray());
+            if (covering == null) {
+                warnings.add(String.format("%s: building the covering array of pairwise combination exceeded %s=%d; using single-field mutation (%d comparisons)",
+                        model.getClassName(), Options.MAX_GENERATION_MILLIS, options.getMaxGenerationMillis(),
+                        comparisons(options, model, Combination.MUTATION)));
+                // the mutations are within the budget already; they get a period of their own
+                deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(options.getMaxGenerationMillis());
+                return Combination.MUTATION;
+            }
+            comparisons = pairwiseComparisons(model, covering.size());
+        }
+        if (combination != Combination.MUTATION && comparisons > options.getMaxCombinations()) {
+            warnings.add(String.format("%s: %d comparisons of %s combination exceed %s=%d; using single-field mutation (%d comparisons)",
+                    model.getClassName(), comparisons, combination.name().toLowerCase(Locale.ENGLISH),
+                    Options.MAX_COMBINATIONS, options.getMaxCombinations(), comparisons(options, model, Combination.MUTATION)));
+            return Combination.MUTATION;
+        }
+        return combination;
+    }
+
+    /**
+     * Comparisons the equals test makes, estimated from below for pairwise combination,
+     * without building any of them.
+     */
+    private static long comparisons(Options options, ElementModel model, Combination combination) {
+        long mutations = 1;
+        for (TypeAndName field : model.getFields()) {
+            mutations += field.getValues().size() - 1;
+        }
+        switch (combination) {
+            case EXHAUSTIVE:
+                long rows = 1;
+                for (TypeAndName field : model.getFields()) {
+                    rows += field.getTestValues().size() - 1;
+                }
+                return rows * rows;
+            case PAIRWISE:
+                // a covering array has at least as many rows as the product of the largest sizes it covers
+                int[] sizes = model.getFields().stream().mapToInt(f -> f.getValues().size()).sorted().toArray();
+                long coveringRows = 1;
+                for (int i = 0; i < Math.min(options.getStrength(), sizes.length); i++) {
+                    coveringRows *= sizes[sizes.length - 1 - i];
+                }
+                return pairwiseComparisons(model, coveringRows);
+            default:
+                return mutations;
+        }
+    }
+
+    /**
+     * Comparisons of pairwise combination: those of single-field mutation of the base object, then each row of the
+     * covering array with another object of the same values and with one mutation of each field that has several.
+     */
+    private static long pairwiseComparisons(ElementModel model, long coveringRows) {
+        long mutations = 1;
+        for (TypeAndName field : model.getFields()) {
+            mutations += field.getValues().size() - 1;
+        }
+        return mutations + coveringRows * (1 + mutable(model.getFields()).size());
+    }
+
+    /**
+     * Indexes of the fields of more than one value.
+     */
+    private static List<Integer> mutable(List<TypeAndName> fields) {
+        List<Integer> result = new ArrayList<>();
+        for (Indexed<TypeAndName> field : withIndex(fields)) {
+            if (field.getValue().getValues().size() > 1) {
+                result.add(field.getIndex());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The row with the field at its next value, wrapping around.
+     */
+    private static int[] mutation(List<TypeAndName> fields, int[] index, int field) {
+        int[] result = index.clone();
+        result[field] = (index[field] + 1) % fields.get(field).getValues().size();
+        return result;
+    }
+
+    /**
+     * Predicted cost of running the tests of a class: the comparisons of its equals test, within the budget,
+     * times its fields.
+     */
+    static long cost(Options options, ElementModel model) {
+        long comparisons = 1;
+        if (model.isLombokEquals()) {
+            comparisons = comparisons(options, model, options.getCombination());
+            if (comparisons > options.getMaxCombinations()) {
+                comparisons = Math.min(comparisons(options, model, Combination.MUTATION), options.getMaxCombinations());
+            }
+        }
+        return comparisons * Math.max(1, model.getFields().size());
+    }
+
+    /**
+     * The single-field mutations, evenly spaced, that together with the comparison of the base object to itself
+     * make at most {@link Options#getMaxCombinations()} comparisons, counted as {@link #comparisons} counts them.
+     */
+    private List<int[]> sampleMutations(ElementModel model, List<int[]> mutations) {
+        long comparisons = comparisons(options, model, Combination.MUTATION);
+        if (comparisons <= options.getMaxCombinations()) {
+            return mutations;
+        }
+        int max = (int) Math.max(0, options.getMaxCombinations() - 1);
+        warnings.add(String.format("%s: %d comparisons of single-field mutation exceed %s=%d; sampling %d of them",
+                model.getClassName(), comparisons, Options.MAX_COMBINATIONS, options.getMaxCombinations(), max + 1));
+        List<int[]> result = new ArrayList<>();
+        for (long i = 0; i < max; i++) {
+            result.add(mutations.get((int) (i * mutations.size() / max)));
+        }
+        return result;
+    }
+
+    /**
+     * Whether generating the class has taken longer than {@link Options#getMaxGenerationMillis()}.
+     * Warns the first time, with the number of comparisons generated so far.
+     */
+    private boolean expired(ElementModel model, int comparisons) {
+        if (! expired && System.nanoTime() > deadline) {
+            expired = true;
+            warnings.add(String.format("%s: generation exceeded %s=%d; the equals test stops after %d comparisons",
+                    model.getClassName(), Options.MAX_GENERATION_MILLIS, options.getMaxGenerationMillis(), comparisons));
+        }
+        return expired;
+    }
+
+    private TestBody exhaustiveEqualsBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        TestBody body = new TestBody();
+        body.prologue()
+                .addStatement("$T obj1", className)
+                .addStatement("$T obj2", className);
+
+        List<TypeAndName> fields = model.getFields();
+        List<List<PlaceholderValue>> values = values(fields);
+
+        int comparisons = 0;
+        for (List<PlaceholderValue> value : values) {
+            for (List<PlaceholderValue> value2 : values) {
+                // the first comparison initializes obj1 for the epilogue
+                if (comparisons > 0 && expired(model, comparisons)) {
+                    break;
+                }
+                comparisons++;
+                CodeBlock.Builder builder = CodeBlock.builder();
+                addNewObjectStatement(builder, model, "obj1", value);
+                addNewObjectStatement(builder, model, "obj2", value2);
+                String eq = value == value2 ? "" : "Not";
+                builder.addStatement("$T.assert" + eq + "Equals(obj1, obj2)", Assert.class);
+                body.add(builder.build());
+            }
+        }
+
+        body.epilogue().addStatement("$T.assertEquals(obj1, obj1)", Assert.class);
+        body.epilogue().addStatement("$T.assertNotEquals(obj1, null)", Assert.class);
+
+        return body;
+    }
+
+    /**
+     * Builds each row once in its own factory method, so the assertions stay one line per comparison.
+     */
+    private TestBody rowsEqualsBody(ElementModel model, Combination combination) {
+        ClassName className = model.getClassName();
+        List<TypeAndName> fields = model.getFields();
+        TestBody body = new TestBody();
+
+        MethodSpec base = createRow(model, row(fields, new int[fields.size()]));
+        body.prologue().addStatement("$T obj1 = $N()", className, base);
+        body.add(CodeBlock.builder().addStatement("$T.assertEquals(obj1, $N())", Assert.class, base).build());
+
+        int comparisons = 0;
+        for (int[] mutation : sampleMutations(model, mutations(fields))) {
+            if (expired(model, comparisons++)) {
+                break;
+            }
+            String eq = fields.get(mutation[0]).isIncluded() ? "Not" : "";
+            MethodSpec spec = createMutationRow(model, base, new int[fields.size()], fields, mutation[0], mutation[1]);
+            body.add(CodeBlock.builder().addStatement("$T.assert" + eq + "Equals(obj1, $N())", Assert.class, spec).build());
+        }
+
+        if (combination == Combination.PAIRWISE && ! expired) {
+            List<Integer> mutable = mutable(fields);
+            for (int[] index : covering) {
+                if (expired(model, comparisons++)) {
+                    break;
+                }
+                MethodSpec spec = createRow(model, row(fields, index));
+                body.add(CodeBlock.builder().addStatement("$T.assertEquals($N(), $N())", Assert.class, spec, spec).build());
+                for (int field : mutable) {
+                    if (expired(model, comparisons++)) {
+                        break;
+                    }
+                    int[] mutation = mutation(fields, index, field);
+                    String eq = fields.get(field).isIncluded() ? "Not" : "";
+                    MethodSpec mutated = createMutationRow(model, spec, index, fields, field, mutation[field]);
+                    body.add(CodeBlock.builder().addStatement("$T.assert" + eq + "Equals($N(), $N())", Assert.class, spec, mutated).build());
+                }
+            }
+        }
+
+        body.epilogue().addStatement("$T.assertEquals(obj1, obj1)", Assert.class);
+        body.epilogue().addStatement("$T.assertNotEquals(obj1, null)", Assert.class);
+
+        return body;
+    }
+
+    /**
+     * Writes the rows as strings of value indexes, one character per field, over a table of the values of each field.
+     * The strings go to the constant pool, so the test stays the same size however many rows there are.
+     */
+    private TestBody tableEqualsBody(ElementModel model, Combination combination) {
+        ClassName className = model.getClassName();
+        List<TypeAndName> fields = model.getFields();
+
+        List<int[]> mutations = new ArrayList<>();
+        List<int[]> pairs = new ArrayList<>();
+        if (combination == Combination.EXHAUSTIVE) {
+            for (List<PlaceholderValue> row : values(fields)) {
+                int[] index = new int[fields.size()];
+                for (int i = 0; i < index.length; i++) {
+                    index[i] = fields.get(i).getValues().indexOf(row.get(i));
+                }
+                pairs.add(index);
+            }
+        } else {
+            mutations.add(new int[fields.size()]);
+            for (int[] mutation : sampleMutations(model, mutations(fields))) {
+                int[] index = new int[fields.size()];
+                index[mutation[0]] = mutation[1];
+                mutations.add(index);
+            }
+            if (combination == Combination.PAIRWISE) {
+                // each row of the covering array, followed by its mutation of each field
+                List<Integer> mutable = mutable(fields);
+                for (int[] index : covering) {
+                    pairs.add(index);
+                    mutable.forEach(field -> pairs.add(mutation(fields, index, field)));
+                }
+            }
+        }
+
+        CodeBlock.Builder values = CodeBlock.builder().add("$T[][] values = {\n", Object.class).indent();
+        for (TypeAndName field : fields) {
+            values.add("{");
+            for (Indexed<PlaceholderValue> value : withIndex(field.getValues())) {
+                use(value.getValue());
+                values.add(value.getIndex() == 0 ? "" : ", ");
+                values.add(value.getValue().getPlaceholder(), value.getValue().getValue());
+            }
+            values.add("},\n");
+        }
+        values.unindent().add("};\n");
+
+        MethodSpec create = createFromTable(model, fields);
+        MethodSpec same = sameValuesFromTable();
+
+        TestBody body = new TestBody();
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .add(values.build())
+                .addStatement("$T included = $S", String.class, fields.stream()
+                        .map(f -> f.isIncluded() ? "1" : "0")
+                        .collect(Collectors.joining()))
+                .addStatement("int width = $L", fields.size());
+        if (! mutations.isEmpty()) {
+            builder.addStatement("$T mutations = $S", String.class, tableRows(mutations))
+                    .addStatement("$T base = $N(values, mutations, 0)", className, create)
+                    .beginControlFlow("for (int i = 0; i < mutations.length() / width; i++)")
+                    .addStatement("$T obj = $N(values, mutations, i)", className, create)
+                    .beginControlFlow("if ($N(included, mutations, 0, mutations, i))", same)
+                    .addStatement("$T.assertEquals(base, obj)", Assert.class)
+                    .nextControlFlow("else")
+                    .addStatement("$T.assertNotEquals(base, obj)", Assert.class)
+                    .endControlFlow()
+                    .endControlFlow()
+                    .addStatement("$T.assertEquals(base, base)", Assert.class)
+                    .addStatement("$T.assertNotEquals(base, null)", Assert.class);
+        }
+        if (! pairs.isEmpty()) {
+            // pairwise rows come in groups of a row of the covering array and its mutations, compared to the first
+            boolean grouped = combination == Combination.PAIRWISE;
+            int group = 1 + mutable(fields).size();
+            builder.addStatement("$T pairs = $S", String.class, tableRows(pairs))
+                    .beginControlFlow("for (int i = 0; i < pairs.length() / width; $L)", grouped ? "i += " + group : "i++")
+                    .addStatement("$T obj1 = $N(values, pairs, i)", className, create)
+                    .beginControlFlow("for (int j = $L; j < $L; j++)",
+                            grouped ? "i" : "0", grouped ? "i + " + group : "pairs.length() / width")
+                    .addStatement("$T obj2 = $N(values, pairs, j)", className, create)
+                    .beginControlFlow("if ($N(included, pairs, i, pairs, j))", same)
+                    .addStatement("$T.assertEquals(obj1, obj2)", Assert.class)
+                    .nextControlFlow("else")
+                    .addStatement("$T.assertNotEquals(obj1, obj2)", Assert.class)
+                    .endControlFlow()
+                    .endControlFlow()
+                    .addStatement("$T.assertEquals(obj1, obj1)", Assert.class)
+                    .addStatement("$T.assertNotEquals(obj1, null)", Assert.class)
+                    .endControlFlow();
+        }
+        return body.add(builder.build());
+    }
+
+    /**
+     * Every single-field mutation of the base row, as field index and value index.
+     */
+    private List<int[]> mutations(List<TypeAndName> fields) {
+        List<int[]> result = new ArrayList<>();
+        for (Indexed<TypeAndName> field : withIndex(fields)) {
+            for (int i = 1; i < field.getValue().getValues().size(); i++) {
+                result.add(new int[] {field.getIndex(), i});
+            }
+        }
+        return result;
+    }
+
+    private String tableRows(List<int[]> rows) {
+        StringBuilder result = new StringBuilder();
+        for (int[] row : rows) {
+            for (int index : row) {
+                result.append(Character.forDigit(index, Character.MAX_RADIX));
+            }
+        }
+        return result.toString();
+    }
+
+    private MethodSpec createFromTable(ElementModel model, List<TypeAndName> fields) {
+        ClassName className = model.getClassName();
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .addStatement("int offset = row * $L", fields.size());
+        if (model.isFillConstructor()) {
+            builder.add("return new $T(", className).indent();
+            for (Indexed<TypeAndName> field : withIndex(fields)) {
+                builder.add(field.getIndex() == 0 ? "\n" : ",\n");
+                builder.add("($T) values[$L][$T.digit(rows.charAt(offset + $L), $T.MAX_RADIX)]",
+                        field.getValue().getType(), field.getIndex(),
+                        Character.class, field.getIndex(), Character.class);
+            }
+            builder.unindent().add(");\n");
+        } else {
+            builder.addStatement("$T obj = new $T()", className, className);
+            for (Indexed<TypeAndName> field : withIndex(fields)) {
+                builder.addStatement("obj.set" + setter(field.getValue().getName())
+                                + "(($T) values[$L][$T.digit(rows.charAt(offset + $L), $T.MAX_RADIX)])",
+                        field.getValue().getType(), field.getIndex(),
+                        Character.class, field.getIndex(), Character.class);
+            }
+            builder.addStatement("return obj");
+        }
+
+        MethodSpec spec = MethodSpec.methodBuilder("create" + model.getClassName().simpleName())
+                .returns(className)
+                .addParameter(Object[][].class, "values")
+                .addParameter(String.class, "rows")
+                .addParameter(int.class, "row")
+                .addCode(builder.build())
+                .build();
+        rows.add(spec);
+        return spec;
+    }
+
+    private MethodSpec sameValuesFromTable() {
+        MethodSpec spec = MethodSpec.methodBuilder("sameIncludedValues")
+                .returns(boolean.class)
+                .addParameter(String.class, "included")
+                .addParameter(String.class, "rows1")
+                .addParameter(int.class, "row1")
+                .addParameter(String.class, "rows2")
+                .addParameter(int.class, "row2")
+                .addStatement("int width = included.length()")
+                .beginControlFlow("for (int i = 0; i < width; i++)")
+                .beginControlFlow("if (included.charAt(i) == '1' && rows1.charAt(row1 * width + i) != rows2.charAt(row2 * width + i))")
+                .addStatement("return false")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return true")
+                .build();
+        rows.add(spec);
+        return spec;
+    }
+
+    private List<PlaceholderValue> row(List<TypeAndName> fields, int[] index) {
+        List<PlaceholderValue> row = new ArrayList<>();
+        for (int i = 0; i < fields.size(); i++) {
+            row.add(fields.get(i).getValues().get(index[i]));
+        }
+        return row;
+    }
+
+    private MethodSpec createRow(ElementModel model, List<PlaceholderValue> values) {
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("$T obj", model.getClassName());
+        addNewObjectStatement(builder, model, "obj", values);
+        builder.addStatement("return obj");
+        return addRow(model, builder.build());
+    }
+
+    /**
+     * @param base  creates the row mutated
+     * @param index values of the base row
+     */
+    private MethodSpec createMutationRow(ElementModel model, MethodSpec base, int[] index, List<TypeAndName> fields, int field, int n) {
+        if (model.isFillConstructor()) {
+            int[] mutated = index.clone();
+            mutated[field] = n;
+            return createRow(model, row(fields, mutated));
+        }
+        PlaceholderValue value = fields.get(field).getValues().get(n);
+        use(value);
+        CodeBlock body = CodeBlock.builder()
+                .addStatement("$T obj = $N()", model.getClassName(), base)
+                .addStatement("obj.set" + setter(value.getName()) + "(" + value.getPlaceholder() + ")", value.getValue())
+                .addStatement("return obj")
+                .build();
+        return addRow(model, body);
+    }
+
+    private MethodSpec addRow(ElementModel model, CodeBlock body) {
+        MethodSpec spec = MethodSpec.methodBuilder("create" + model.getClassName().simpleName() + "Row" + rows.size())
+                .returns(model.getClassName())
+                .addCode(body)
+                .build();
+        rows.add(spec);
+        return spec;
+    }
+
+    private List<PlaceholderValue> valuesNull(List<TypeAndName> fields) {
+        List<TypeAndName> nullValues = fields.stream().map(e -> {
+            List<PlaceholderValue> values = e.getTestValues();
+            int size = values.size();
+            return new TypeAndName(e.getType(), e.getName(), values.subList(size - 1, size), null, null, true);
+        }).collect(Collectors.toList());
+        List<List<PlaceholderValue>> values = values(nullValues);
+        return values.get(values.size() - 1);
+    }
+
+    private List<List<PlaceholderValue>> values(List<TypeAndName> fields) {
+        long start = System.nanoTime();
+        List<List<PlaceholderValue>> result = new ArrayList<>();
+        values(fields, new ArrayList<>(), result, false);
+        combinations += result.size();
+        combinationNanos += System.nanoTime() - start;
+        return result;
+    }
+
+    private List<int[]> coveringArray(int[] sizes) {
+        long start = System.nanoTime();
+        List<int[]> result = CoveringArray.generate(sizes, options.getStrength(), deadline);
+        combinationNanos += System.nanoTime() - start;
+        if (result != null) {
+            combinations += result.size();
+        }
+        return result;
+    }
+
+    private void values(List<TypeAndName> fields, List<PlaceholderValue> buf, List<List<PlaceholderValue>> result, boolean containsAlt) {
+        if (fields.isEmpty()) {
+            result.add(buf);
+            return;
+        }
+
+        TypeAndName head = fields.get(0);
+        List<PlaceholderValue> values = head.getTestValues();
+
+        if (containsAlt) {
+            ArrayList<PlaceholderValue> tmp = new ArrayList<>(buf);
+            tmp.add(values.get(0));
+            values(fields.subList(1, fields.size()), tmp, result, true);
+        } else {
+            boolean first = true;
+            for (PlaceholderValue value : values) {
+                ArrayList<PlaceholderValue> tmp = new ArrayList<>(buf);
+                tmp.add(value);
+                values(fields.subList(1, fields.size()), tmp, result, ! first);
+                first = false;
+            }
+        }
+    }
+
+    private List<MethodSpec> hashCodeTestSpec(ElementModel model) {
+        if (options.getEmission() == Emission.RUNTIME) {
+            return checkerTestSpec(model, "testHashCode", "checkHashCode");
+        }
+        return testSpecs("testHashCode", hashCodeBody(model));
+    }
+
+    /**
+     * A test calling a check of the runtime module's {@code ContractChecker} with the descriptor of the class.
+     */
+    private List<MethodSpec> checkerTestSpec(ElementModel model, String name, String check) {
+        return testSpecs(name, new TestBody().add(CodeBlock.builder()
+                .addStatement("$T.$L($N())", CONTRACT_CHECKER, check, descriptorSpec(model))
+                .build()));
+    }
+
+    /**
+     * Builds the descriptor of the class: how to create its objects, and the test values of each field.
+     */
+    private MethodSpec descriptorSpec(ElementModel model) {
+        if (descriptor != null) {
+            return descriptor;
+        }
+        ClassName className = model.getClassName();
+        CodeBlock.Builder builder = CodeBlock.builder()
+                .add("return $T.builder($T.class, $T.lookup())\n$>$>", CLASS_DESCRIPTOR, className, MethodHandles.class)
+                .add(model.isFillConstructor() ? ".constructor()" : ".setters()");
+        for (TypeAndName field : model.getFields()) {
+            field.getValues().forEach(this::use);
+            String format = field.getValues().stream().map(PlaceholderValue::getPlaceholder).collect(Collectors.joining(", "));
+            Object[] objects = field.getValues().stream().map(PlaceholderValue::getValue).toArray();
+            builder.add("\n.field($S, $L, () -> new $T[] {", field.getName(), field.isIncluded(), Object.class)
+                    .add(format, objects)
+                    .add("})");
+        }
+        descriptor = MethodSpec.methodBuilder("descriptor")
+                .returns(ParameterizedTypeName.get(CLASS_DESCRIPTOR, className))
+                .addCode(builder.add("\n.build();\n$<$<").build())
+                .build();
+        rows.add(descriptor);
+        return descriptor;
+    }
+
+    private TestBody hashCodeBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        TestBody body = new TestBody();
+        body.prologue().addStatement("$T obj1", className);
+        body.prologue().addStatement("$T obj2", className);
+
+        List<TypeAndName> fields = model.getFields();
+        List<List<PlaceholderValue>> values = values(fields);
+
+        CodeBlock.Builder builder = CodeBlock.builder();
+        addNewObjectStatement(builder, model, "obj1", values.get(0));
+        addNewObjectStatement(builder, model, "obj2", values.get(0));
+        builder.addStatement("$T.assertEquals(obj1.hashCode(), obj2.hashCode())", Assert.class);
+        body.add(builder.build());
+
+        List<PlaceholderValue> nullValues = valuesNull(fields);
+
+        builder = CodeBlock.builder();
+        addNewObjectStatement(builder, model, "obj1", nullValues);
+        addNewObjectStatement(builder, model, "obj2", nullValues);
+        builder.addStatement("$T.assertEquals(obj1.hashCode(), obj2.hashCode())", Assert.class);
+        body.add(builder.build());
+
+        return body;
+    }
+
+    private List<MethodSpec> hashDistributionTestSpec(ElementModel model) {
+        return testSpecs("testHashDistribution", hashDistributionBody(model));
+    }
+
+    /**
+     * Builds up to {@link Options#getHashSamples()} distinct objects from random values of the fields equals compares,
+     * and asserts how their hash codes spread over a HashMap table.
+     */
+    private TestBody hashDistributionBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        List<PlaceholderValue> values = model.getFields().stream()
+                .map(field -> field.isIncluded() && field.getRandom() != null ? field.getRandom() : field.getValues().get(0))
+                .collect(Collectors.toList());
+
+        TestBody body = new TestBody();
+        body.prologue().addStatement("$T obj", className);
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("$T random = new $T($LL)", Random.class, Random.class, options.getSeed());
+        builder.addStatement("$T<$T> objects = new $T<>()", Set.class, className, HashSet.class);
+        builder.beginControlFlow("for (int i = 0; i < $L && objects.size() < $L; i++)",
+                options.getHashSamples() * 4, options.getHashSamples());
+        addNewObjectStatement(builder, model, "obj", values);
+        builder.addStatement("objects.add(obj)");
+        builder.endControlFlow();
+        builder.addStatement("assertHashDistribution(objects, $LD, $LD)", options.getMaxCollisionRate(), options.getMaxChiSquareRatio());
+        rows.add(assertHashDistributionSpec());
+        return body.add(builder.build());
+    }
+
+    /**
+     * Spreads the hash codes the way {@link HashMap} does over the table it would use for the objects, and asserts
+     * the share of objects landing in an occupied bucket and the chi-square statistic per degree of freedom.
+     */
+    private MethodSpec assertHashDistributionSpec() {
+        return MethodSpec.methodBuilder("assertHashDistribution")
+                .addModifiers(Modifier.STATIC)
+                .addParameter(ParameterizedTypeName.get(ClassName.get(Collection.class), WildcardTypeName.subtypeOf(Object.class)), "objects")
+                .addParameter(double.class, "maxCollisionRate")
+                .addParameter(double.class, "maxChiSquareRatio")
+                .addStatement("int n = objects.size()")
+                .addStatement("$T.assumeTrue($S + n, n >= 64)", Assume.class, "too few distinct objects: ")
+                .addStatement("int buckets = 1")
+                .beginControlFlow("while (buckets * 0.75 < n)")
+                .addStatement("buckets <<= 1")
+                .endControlFlow()
+                .addStatement("int[] counts = new int[buckets]")
+                .beginControlFlow("for (Object obj : objects)")
+                .addStatement("int h = obj.hashCode()")
+                .addStatement("counts[(h ^ (h >>> 16)) & (buckets - 1)]++")
+                .endControlFlow()
+                .addStatement("double expected = (double) n / buckets")
+                .addStatement("int occupied = 0")
+                .addStatement("double chiSquare = 0")
+                .beginControlFlow("for (int count : counts)")
+                .beginControlFlow("if (count > 0)")
+                .addStatement("occupied++")
+                .endControlFlow()
+                .addStatement("chiSquare += (count - expected) * (count - expected) / expected")
+                .endControlFlow()
+                .addStatement("double collisionRate = (double) (n - occupied) / n")
+                .addStatement("double chiSquareRatio = chiSquare / (buckets - 1)")
+                .addStatement("$T.assertTrue($T.format($S, collisionRate, n, buckets, maxCollisionRate), collisionRate <= maxCollisionRate)",
+                        Assert.class, String.class, "collision rate %.3f of %d objects in %d buckets exceeds %.3f")
+                .addStatement("$T.assertTrue($T.format($S, chiSquareRatio, n, buckets, maxChiSquareRatio), chiSquareRatio <= maxChiSquareRatio)",
+                        Assert.class, String.class, "chi-square ratio %.3f of %d objects in %d buckets exceeds %.3f")
+                .build();
+    }
+
+    private List<MethodSpec> equalsContractTestSpec(ElementModel model) {
+        String factory = "fuzz" + model.getClassName().simpleName();
+        List<TypeAndName> randomized = model.getFields().stream()
+                .filter(field -> field.getRandom() != null)
+                .collect(Collectors.toList());
+        String included = randomized.stream()
+                .map(field -> String.valueOf(field.isIncluded()))
+                .collect(Collectors.joining(", "));
+        int batches = (options.getFuzzTrials() + 999) / 1000;
+
+        TestBody body = new TestBody();
+        body.add(CodeBlock.builder()
+                .addStatement("assertEqualsContract(this::$N, new boolean[] {$L}, $L, $L, $LL)", factory, included,
+                        batches, (options.getFuzzTrials() + batches - 1) / batches, options.getSeed())
+                .build());
+        rows.add(fuzzFactorySpec(model, factory, randomized));
+        rows.add(assertEqualsContractSpec());
+        rows.add(fuzzBatchSpec());
+        rows.add(fuzzSeedsSpec());
+        rows.add(equalsContractViolationSpec());
+        rows.add(shrinkSpec());
+        rows.add(seedSizeSpec());
+        return testSpecs("testEqualsContract", body);
+    }
+
+    /**
+     * Builds an object whose fields with random values each draw from a Random of their own seed, so that objects
+     * share a field exactly when they share its seed. The other fields take their first value.
+     */
+    private MethodSpec fuzzFactorySpec(ElementModel model, String name, List<TypeAndName> randomized) {
+        ClassName className = model.getClassName();
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("$T random", Random.class);
+        List<PlaceholderValue> values = new ArrayList<>();
+        for (TypeAndName field : model.getFields()) {
+            int index = randomized.indexOf(field);
+            if (index < 0) {
+                values.add(field.getValues().get(0));
+                continue;
+            }
+            PlaceholderValue random = field.getRandom();
+            builder.addStatement("random = new $T(seeds[$L])", Random.class, index);
+            builder.addStatement("$T value$L = " + random.getPlaceholder(), field.getType(), index, random.getValue());
+            values.add(new PlaceholderValue("$L", field.getName(), "value" + index));
+        }
+        builder.addStatement("$T obj", className);
+        addNewObjectStatement(builder, model, "obj", values);
+        builder.addStatement("return obj");
+        return MethodSpec.methodBuilder(name)
+                .returns(className)
+                .addParameter(long[].class, "seeds")
+                .addCode(builder.build())
+                .build();
+    }
+
+    /**
+     * Checks the equals contract on triples of objects from batches of seeds, in parallel. Each batch has a Random of
+     * its own from the seed, and the failure of the first failing batch is shrunk, so failures are reproducible.
+     */
+    private MethodSpec assertEqualsContractSpec() {
+        TypeName factoryType = ParameterizedTypeName.get(ClassName.get(Function.class), TypeName.get(long[].class), TypeName.OBJECT);
+        return MethodSpec.methodBuilder("assertEqualsContract")
+                .addModifiers(Modifier.STATIC)
+                .addParameter(factoryType, "factory")
+                .addParameter(boolean[].class, "included")
+                .addParameter(int.class, "batches")
+                .addParameter(int.class, "trials")
+                .addParameter(long.class, "seed")
+                .addStatement("$T<long[][]> failure = $T.range(0, batches).parallel()\n$>$>"
+                                + ".mapToObj(batch -> fuzzBatch(factory, included, trials, seed * 31 + batch))\n"
+                                + ".filter($T::nonNull)\n"
+                                + ".findFirst()$<$<",
+                        Optional.class, IntStream.class, Objects.class)
+                .beginControlFlow("if (failure.isPresent())")
+                .addStatement("long[][] seeds = shrink(factory, included, failure.get())")
+                .addStatement("$T.fail($T.format($S, equalsContractViolation(factory, included, seeds), seed, "
+                                + "factory.apply(seeds[0]), factory.apply(seeds[1]), factory.apply(seeds[2]), $T.deepToString(seeds)))",
+                        Assert.class, String.class, "%s with seed %d between%n  %s%n  %s%n  %s%nbuilt from field seeds %s",
+                        Arrays.class)
+                .endControlFlow()
+                .build();
+    }
+
+    /**
+     * @return the seeds of the first triple of objects that breaks the contract, or null
+     */
+    private MethodSpec fuzzBatchSpec() {
+        TypeName factoryType = ParameterizedTypeName.get(ClassName.get(Function.class), TypeName.get(long[].class), TypeName.OBJECT);
+        return MethodSpec.methodBuilder("fuzzBatch")
+                .addModifiers(Modifier.STATIC)
+                .returns(long[][].class)
+                .addParameter(factoryType, "factory")
+                .addParameter(boolean[].class, "included")
+                .addParameter(int.class, "trials")
+                .addParameter(long.class, "seed")
+                .addStatement("$T random = new $T(seed)", Random.class, Random.class)
+                .beginControlFlow("for (int trial = 0; trial < trials; trial++)")
+                .addStatement("long[][] seeds = fuzzSeeds(random, included)")
+                .beginControlFlow("if (equalsContractViolation(factory, included, seeds) != null)")
+                .addStatement("return seeds")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return null")
+                .build();
+    }
+
+    /**
+     * Seeds of the fields of three objects. All, some or none of the fields equals compares are shared with the
+     * previous object; the others always differ, so that they are seen not to matter.
+     */
+    private MethodSpec fuzzSeedsSpec() {
+        return MethodSpec.methodBuilder("fuzzSeeds")
+                .addModifiers(Modifier.STATIC)
+                .returns(long[][].class)
+                .addParameter(Random.class, "random")
+                .addParameter(boolean[].class, "included")
+                .addStatement("long[][] seeds = new long[3][included.length]")
+                .addStatement("int mode = random.nextInt(3)")
+                .beginControlFlow("for (int f = 0; f < included.length; f++)")
+                .addStatement("seeds[0][f] = random.nextLong()")
+                .beginControlFlow("for (int k = 1; k < 3; k++)")
+                .addStatement("boolean same = included[f] && (mode == 0 || mode == 1 && random.nextBoolean())")
+                .addStatement("seeds[k][f] = same ? seeds[k - 1][f] : random.nextLong()")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return seeds")
+                .build();
+    }
+
+    /**
+     * Reflexivity, symmetry, transitivity, inequality to null, equal hash codes of equal objects, and equality of
+     * objects that share every field equals compares.
+     *
+     * @return what is broken, or null
+     */
+    private MethodSpec equalsContractViolationSpec() {
+        TypeName factoryType = ParameterizedTypeName.get(ClassName.get(Function.class), TypeName.get(long[].class), TypeName.OBJECT);
+        return MethodSpec.methodBuilder("equalsContractViolation")
+                .addModifiers(Modifier.STATIC)
+                .returns(String.class)
+                .addParameter(factoryType, "factory")
+                .addParameter(boolean[].class, "included")
+                .addParameter(long[][].class, "seeds")
+                .addStatement("Object[] objects = new Object[seeds.length]")
+                .beginControlFlow("for (int k = 0; k < seeds.length; k++)")
+                .addStatement("objects[k] = factory.apply(seeds[k])")
+                .beginControlFlow("if (! objects[k].equals(objects[k]))")
+                .addStatement("return $S + k + $S", "object ", " is not equal to itself")
+                .endControlFlow()
+                .beginControlFlow("if (objects[k].equals(null))")
+                .addStatement("return $S + k + $S", "object ", " is equal to null")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("for (int j = 0; j < seeds.length; j++)")
+                .beginControlFlow("for (int k = j + 1; k < seeds.length; k++)")
+                .addStatement("boolean equal = objects[j].equals(objects[k])")
+                .beginControlFlow("if (equal != objects[k].equals(objects[j]))")
+                .addStatement("return $S + j + $S + k", "equals is not symmetric between objects ", " and ")
+                .endControlFlow()
+                .beginControlFlow("if (equal && objects[j].hashCode() != objects[k].hashCode())")
+                .addStatement("return $S + j + $S + k", "hash codes differ between equal objects ", " and ")
+                .endControlFlow()
+                .addStatement("boolean same = true")
+                .beginControlFlow("for (int f = 0; f < included.length; f++)")
+                .addStatement("same &= ! included[f] || seeds[j][f] == seeds[k][f]")
+                .endControlFlow()
+                .beginControlFlow("if (same && ! equal)")
+                .addStatement("return $S + j + $S + k + $S", "objects ", " and ", " are not equal though equals compares only the same fields")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (objects[0].equals(objects[1]) && objects[1].equals(objects[2]) && ! objects[0].equals(objects[2]))")
+                .addStatement("return $S", "equals is not transitive")
+                .endControlFlow()
+                .addStatement("return null")
+                .build();
+    }
+
+    /**
+     * Replaces a seed, in every object that shares it, with the seed of the same field of another object, with 0 or
+     * with its half, as long as the contract stays broken and the seeds get smaller by {@code seedSize}.
+     */
+    private MethodSpec shrinkSpec() {
+        TypeName factoryType = ParameterizedTypeName.get(ClassName.get(Function.class), TypeName.get(long[].class), TypeName.OBJECT);
+        return MethodSpec.methodBuilder("shrink")
+                .addModifiers(Modifier.STATIC)
+                .returns(long[][].class)
+                .addParameter(factoryType, "factory")
+                .addParameter(boolean[].class, "included")
+                .addParameter(long[][].class, "seeds")
+                .addStatement("boolean shrunk = true")
+                .beginControlFlow("while (shrunk)")
+                .addStatement("shrunk = false")
+                .beginControlFlow("for (int k = 0; k < seeds.length; k++)")
+                .beginControlFlow("for (int f = 0; f < included.length; f++)")
+                .addStatement("long[] candidates = {seeds[(k + 1) % 3][f], seeds[(k + 2) % 3][f], 0L, seeds[k][f] / 2}")
+                .beginControlFlow("for (long candidate : candidates)")
+                .addStatement("long[][] smaller = {seeds[0].clone(), seeds[1].clone(), seeds[2].clone()}")
+                .beginControlFlow("for (int j = 0; j < seeds.length; j++)")
+                .beginControlFlow("if (seeds[j][f] == seeds[k][f])")
+                .addStatement("smaller[j][f] = candidate")
+                .endControlFlow()
+                .endControlFlow()
+                .beginControlFlow("if (seedSize(smaller) < seedSize(seeds) && equalsContractViolation(factory, included, smaller) != null)")
+                .addStatement("seeds = smaller")
+                .addStatement("shrunk = true")
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return seeds")
+                .build();
+    }
+
+    /**
+     * Distinct seeds of each field first, then the bits of all seeds.
+     */
+    private MethodSpec seedSizeSpec() {
+        return MethodSpec.methodBuilder("seedSize")
+                .addModifiers(Modifier.STATIC)
+                .returns(long.class)
+                .addParameter(long[][].class, "seeds")
+                .addStatement("long distinct = 0")
+                .addStatement("long bits = 0")
+                .beginControlFlow("for (int f = 0; f < seeds[0].length; f++)")
+                .addStatement("distinct += $T.of(seeds[0][f], seeds[1][f], seeds[2][f]).distinct().count()", LongStream.class)
+                .beginControlFlow("for (long[] object : seeds)")
+                .addStatement("bits += 64 - Long.numberOfLeadingZeros(object[f] < 0 ? ~object[f] : object[f])")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("return distinct * 64 * seeds.length * seeds[0].length + bits")
+                .build();
+    }
+
+    private List<MethodSpec> allocationTestSpec(ElementModel model) {
+        return testSpecs("testAllocation", allocationBody(model));
+    }
+
+    /**
+     * Asserts the bytes the Lombok-generated methods allocate per call, once they are compiled.
+     */
+    private TestBody allocationBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        TestBody body = new TestBody();
+        body.prologue().addStatement("$T obj1", className);
+        body.prologue().addStatement("$T obj2", className);
+        body.prologue().addStatement("long bytes");
+
+        CodeBlock.Builder builder = CodeBlock.builder();
+        addNewObjectStatement(builder, model, "obj1", Integer.MAX_VALUE);
+        addNewObjectStatement(builder, model, "obj2", Integer.MAX_VALUE);
+        if (model.isLombokEquals()) {
+            addAllocationAssert(builder, "hashCode()", "obj1.hashCode()", model.getEqualsMaxBytes());
+            addAllocationAssert(builder, "equals(Object)", "obj1.equals(obj2) ? 1 : 0", model.getEqualsMaxBytes());
+        }
+        if (model.isLombokToString()) {
+            addAllocationAssert(builder, "toString()", "obj1.toString().length()", model.getToStringMaxBytes());
+        }
+        rows.add(allocatedBytesSpec());
+        return body.add(builder.build());
+    }
+
+    private void addAllocationAssert(CodeBlock.Builder builder, String method, String expression, long maxBytes) {
+        builder.addStatement("bytes = allocatedBytes(() -> $L)", expression);
+        builder.addStatement("$T.assertTrue($S + bytes + $S, bytes <= $LL)", Assert.class,
+                method + " allocated ", " bytes, budget is " + maxBytes, maxBytes);
+    }
+
+    /**
+     * Warms the action up, then returns the fewest bytes one call allocated over a few attempts,
+     * less what reading the counter allocates itself.
+     */
+    private MethodSpec allocatedBytesSpec() {
+        ClassName threadMXBean = ClassName.get("com.sun.management", "ThreadMXBean");
+        return MethodSpec.methodBuilder("allocatedBytes")
+                .addModifiers(Modifier.STATIC)
+                .returns(long.class)
+                .addParameter(IntSupplier.class, "action")
+                .addStatement("$T bean = $T.getThreadMXBean()", java.lang.management.ThreadMXBean.class, ManagementFactory.class)
+                .addStatement("$T.assumeTrue(bean instanceof $T)", Assume.class, threadMXBean)
+                .addStatement("$T threads = ($T) bean", threadMXBean, threadMXBean)
+                .addStatement("$T.assumeTrue(threads.isThreadAllocatedMemorySupported())", Assume.class)
+                .addStatement("threads.setThreadAllocatedMemoryEnabled(true)")
+                .addStatement("long id = Thread.currentThread().getId()")
+                .addStatement("int expected = action.getAsInt()")
+                .beginControlFlow("for (int i = 0; i < 20000; i++)")
+                .addStatement("$T.assertEquals(expected, action.getAsInt())", Assert.class)
+                .endControlFlow()
+                .addStatement("long min = Long.MAX_VALUE")
+                .beginControlFlow("for (int i = 0; i < 5; i++)")
+                .addStatement("long start = threads.getThreadAllocatedBytes(id)")
+                .addStatement("long before = threads.getThreadAllocatedBytes(id)")
+                .addStatement("int actual = action.getAsInt()")
+                .addStatement("long after = threads.getThreadAllocatedBytes(id)")
+                .addStatement("$T.assertEquals(expected, actual)", Assert.class)
+                .addStatement("min = Math.min(min, (after - before) - (before - start))")
+                .endControlFlow()
+                .addStatement("return Math.max(0L, min)")
+                .build();
+    }
+
+    private List<MethodSpec> scalingTestSpec(ElementModel model) {
+        return testSpecs("testScaling", scalingBody(model));
+    }
+
+    /**
+     * Fills the collection fields with each of {@link Options#getScalingSizes()} elements, times the Lombok-generated
+     * methods at each size, and asserts how fast their cost grows and what it comes to per element.
+     */
+    private TestBody scalingBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        List<PlaceholderValue> values = model.getFields().stream()
+                .map(field -> field.getSized() != null ? field.getSized() : field.getValues().get(0))
+                .collect(Collectors.toList());
+        long collections = model.getFields().stream().filter(field -> field.getSized() != null).count();
+        List<String> methods = new ArrayList<>();
+        if (model.isLombokEquals()) {
+            methods.add("hashCode");
+            methods.add("equals");
+        }
+        if (model.isLombokToString()) {
+            methods.add("toString");
+        }
+
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("int[] sizes = {$L}", options.getScalingSizes().stream().map(String::valueOf).collect(Collectors.joining(", ")));
+        for (String method : methods) {
+            builder.addStatement("long[] $LNanos = new long[sizes.length]", method);
+        }
+        builder.beginControlFlow("for (int s = 0; s < sizes.length; s++)");
+        builder.addStatement("int size = sizes[s]");
+        builder.addStatement("$T obj1", className);
+        builder.addStatement("$T obj2", className);
+        addNewObjectStatement(builder, model, "obj1", values);
+        addNewObjectStatement(builder, model, "obj2", values);
+        if (model.isLombokEquals()) {
+            builder.addStatement("hashCodeNanos[s] = nanosPerCall(() -> obj1.hashCode())");
+            builder.addStatement("equalsNanos[s] = nanosPerCall(() -> obj1.equals(obj2) ? 1 : 0)");
+        }
+        if (model.isLombokToString()) {
+            builder.addStatement("toStringNanos[s] = nanosPerCall(() -> obj1.toString().length())");
+        }
+        builder.endControlFlow();
+        for (String method : methods) {
+            builder.addStatement("assertScaling($S, sizes, $L, $LNanos, $LD, $LL)", method + (method.equals("equals") ? "(Object)" : "()"),
+                    collections, method, options.getMaxScalingExponent(), options.getMaxNanosPerElement());
+        }
+        rows.add(nanosPerCallSpec());
+        rows.add(assertScalingSpec());
+        return new TestBody().add(builder.build());
+    }
+
+    /**
+     * Repeats the action for a few milliseconds at a time and returns the fewest nanoseconds one call took,
+     * the first periods warming it up.
+     */
+    private MethodSpec nanosPerCallSpec() {
+        return MethodSpec.methodBuilder("nanosPerCall")
+                .addModifiers(Modifier.STATIC)
+                .returns(long.class)
+                .addParameter(IntSupplier.class, "action")
+                .addStatement("int expected = action.getAsInt()")
+                .addStatement("long min = Long.MAX_VALUE")
+                .beginControlFlow("for (int i = 0; i < 10; i++)")
+                .addStatement("long calls = 0")
+                .addStatement("long start = System.nanoTime()")
+                .addStatement("long elapsed")
+                .beginControlFlow("do")
+                .addStatement("$T.assertEquals(expected, action.getAsInt())", Assert.class)
+                .addStatement("calls++")
+                .addStatement("elapsed = System.nanoTime() - start")
+                .endControlFlow("while (elapsed < $T.MILLISECONDS.toNanos(10))", TimeUnit.class)
+                .addStatement("min = Math.min(min, elapsed / calls)")
+                .endControlFlow()
+                .addStatement("return min")
+                .build();
+    }
+
+    /**
+     * Fits the exponent of the size the time grows with by least squares over the logarithms, and asserts it
+     * and the time per element of all the collections at the largest size.
+     */
+    private MethodSpec assertScalingSpec() {
+        return MethodSpec.methodBuilder("assertScaling")
+                .addModifiers(Modifier.STATIC)
+                .addParameter(String.class, "method")
+                .addParameter(int[].class, "sizes")
+                .addParameter(int.class, "collections")
+                .addParameter(long[].class, "nanos")
+                .addParameter(double.class, "maxExponent")
+                .addParameter(long.class, "maxNanosPerElement")
+                .addStatement("int n = sizes.length")
+                .beginControlFlow("if (n > 1)")
+                .addStatement("double sumX = 0, sumY = 0, sumXX = 0, sumXY = 0")
+                .beginControlFlow("for (int i = 0; i < n; i++)")
+                .addStatement("double x = Math.log(sizes[i])")
+                .addStatement("double y = Math.log(Math.max(1L, nanos[i]))")
+                .addStatement("sumX += x")
+                .addStatement("sumY += y")
+                .addStatement("sumXX += x * x")
+                .addStatement("sumXY += x * y")
+                .endControlFlow()
+                .addStatement("double exponent = (n * sumXY - sumX * sumY) / (n * sumXX - sumX * sumX)")
+                .addStatement("$T.assertTrue($T.format($S, method, exponent, $T.toString(sizes), $T.toString(nanos), maxExponent), exponent <= maxExponent)",
+                        Assert.class, String.class, "%s grows as size^%.2f over sizes %s taking %s ns, limit is %.2f",
+                        Arrays.class, Arrays.class)
+                .endControlFlow()
+                .addStatement("long perElement = nanos[n - 1] / Math.max(1L, (long) sizes[n - 1] * collections)")
+                .addStatement("$T.assertTrue($T.format($S, method, perElement, collections, sizes[n - 1], maxNanosPerElement), perElement <= maxNanosPerElement)",
+                        Assert.class, String.class, "%s takes %d ns per element of %d collections of size %d, budget is %d")
+                .build();
+    }
+
+    private List<MethodSpec> concurrencyTestSpec(ElementModel model) {
+        return testSpecs("testConcurrency", concurrencyBody(model));
+    }
+
+    /**
+     * Calls the Lombok-generated methods of shared objects from more and more threads, and asserts every call
+     * returns what the first did and the throughput keeps up with the threads.
+     */
+    private TestBody concurrencyBody(ElementModel model) {
+        ClassName className = model.getClassName();
+        TestBody body = new TestBody();
+        body.prologue().addStatement("$T obj1", className);
+        body.prologue().addStatement("$T obj2", className);
+
+        CodeBlock.Builder builder = CodeBlock.builder();
+        addNewObjectStatement(builder, model, "obj1", Integer.MAX_VALUE);
+        addNewObjectStatement(builder, model, "obj2", Integer.MAX_VALUE);
+        String simpleName = className.simpleName();
+        if (model.isLombokEquals()) {
+            builder.addStatement("assertConcurrentScaling($S, () -> obj1.hashCode(), $LD)",
+                    simpleName + ".hashCode()", options.getMinThreadEfficiency());
+            builder.addStatement("assertConcurrentScaling($S, () -> obj1.equals(obj2) ? 1 : 0, $LD)",
+                    simpleName + ".equals(Object)", options.getMinThreadEfficiency());
+        }
+        if (model.isLombokToString()) {
+            builder.addStatement("assertConcurrentScaling($S, () -> obj1.toString().hashCode(), $LD)",
+                    simpleName + ".toString()", options.getMinThreadEfficiency());
+        }
+        rows.add(assertConcurrentScalingSpec());
+        rows.add(callsPerMilliSpec());
+        return body.add(builder.build());
+    }
+
+    /**
+     * Measures the action, once to warm it up, then on 1, 2, 4 and so on up to as many threads as processors.
+     * Asserts each thread beyond the first adds at least the given share of the throughput of one thread, so that
+     * collapse, as under a lock, fails however many threads there are. Counts above the processors the system load
+     * leaves free, as parallel test forks share the machine, skip the test instead. The throughput of every thread
+     * count is printed, and is in the message of a failure or skip.
+     */
+    private MethodSpec assertConcurrentScalingSpec() {
+        return MethodSpec.methodBuilder("assertConcurrentScaling")
+                .addModifiers(Modifier.STATIC)
+                .addParameter(String.class, "method")
+                .addParameter(IntSupplier.class, "action")
+                .addParameter(double.class, "minEfficiency")
+                .addStatement("int expected = action.getAsInt()")
+                .addStatement("int processors = Runtime.getRuntime().availableProcessors()")
+                .addStatement("double load = $T.getOperatingSystemMXBean().getSystemLoadAverage()", ManagementFactory.class)
+                .addStatement("int free = load < 0 ? processors : processors - (int) Math.ceil(load)")
+                .addStatement("callsPerMilli(method, action, expected, 1)")
+                .addStatement("double single = 0")
+                .addStatement("$T report = new $T(method)", StringBuilder.class, StringBuilder.class)
+                .beginControlFlow("for (int threads = 1; ; threads = Math.min(threads * 2, processors))")
+                .addStatement("double throughput = callsPerMilli(method, action, expected, threads)")
+                .beginControlFlow("if (threads == 1)")
+                .addStatement("single = throughput")
+                .endControlFlow()
+                .addCode("// the speedup per thread beyond the first, 0 or below when the calls take turns\n")
+                .addStatement("double efficiency = threads == 1 ? 1 : (throughput / single - 1) / (threads - 1)")
+                .addStatement("report.append($T.format($S, threads, throughput, efficiency))", String.class,
+                        ", %d threads %.0f calls/ms (efficiency %.2f)")
+                .beginControlFlow("if (threads > 1)")
+                .addStatement("$T.assumeTrue(report + $S + free, threads <= free)", Assume.class,
+                        ", processors free is ")
+                .addStatement("$T.assertTrue(report + $S + minEfficiency, efficiency >= minEfficiency)", Assert.class,
+                        ", minimum efficiency is ")
+                .endControlFlow()
+                .beginControlFlow("if (threads >= processors)")
+                .addStatement("break")
+                .endControlFlow()
+                .endControlFlow()
+                .addStatement("$T.out.println(report)", System.class)
+                .build();
+    }
+
+    /**
+     * Calls the action from the threads at once for 50 ms, failing when a call returns something other than
+     * expected or throws.
+     */
+    private MethodSpec callsPerMilliSpec() {
+        ParameterizedTypeName failureType = ParameterizedTypeName.get(AtomicReference.class, String.class);
+        return MethodSpec.methodBuilder("callsPerMilli")
+                .addModifiers(Modifier.STATIC)
+                .returns(double.class)
+                .addParameter(String.class, "method")
+                .addParameter(IntSupplier.class, "action")
+                .addParameter(int.class, "expected")
+                .addParameter(int.class, "threads")
+                .addStatement("long millis = 50")
+                .addStatement("$T ready = new $T(1)", CountDownLatch.class, CountDownLatch.class)
+                .addStatement("$T deadline = new $T()", AtomicLong.class, AtomicLong.class)
+                .addStatement("$T failure = new $T()", failureType, failureType)
+                .addStatement("long[] counts = new long[threads]")
+                .addStatement("Thread[] workers = new Thread[threads]")
+                .beginControlFlow("for (int t = 0; t < threads; t++)")
+                .addStatement("int index = t")
+                .beginControlFlow("workers[t] = new Thread(() ->")
+                .addStatement("long count = 0")
+                .beginControlFlow("try")
+                .addStatement("ready.await()")
+                .addStatement("long end = deadline.get()")
+                .beginControlFlow("do")
+                .addStatement("int actual = action.getAsInt()")
+                .beginControlFlow("if (actual != expected)")
+                .addStatement("failure.compareAndSet(null, $S + actual + $S + expected)", "returned ", " instead of ")
+                .endControlFlow()
+                .addStatement("count++")
+                .endControlFlow("while ((count & 63) != 0 || System.nanoTime() < end)")
+                .nextControlFlow("catch ($T e)", InterruptedException.class)
+                .addStatement("Thread.currentThread().interrupt()")
+                .nextControlFlow("catch ($T e)", RuntimeException.class)
+                .addStatement("failure.compareAndSet(null, $S + e)", "threw ")
+                .endControlFlow()
+                .addStatement("counts[index] = count")
+                .endControlFlow(")")
+                .addStatement("workers[t].start()")
+                .endControlFlow()
+                .addStatement("deadline.set(System.nanoTime() + $T.MILLISECONDS.toNanos(millis))", TimeUnit.class)
+                .addStatement("ready.countDown()")
+                .addStatement("long total = 0")
+                .beginControlFlow("for (int t = 0; t < threads; t++)")
+                .beginControlFlow("try")
+                .addStatement("workers[t].join()")
+                .nextControlFlow("catch ($T e)", InterruptedException.class)
+                .addStatement("throw new $T(e)", AssertionError.class)
+                .endControlFlow()
+                .addStatement("total += counts[t]")
+                .endControlFlow()
+                .addStatement("$T.assertNull(method + $S + threads + $S + failure.get(), failure.get())", Assert.class,
+                        " on ", " threads ")
+                .addStatement("return (double) total / millis")
+                .build();
+    }
+
+    private void addNewObjectStatement(CodeBlock.Builder builder, ElementModel model, String objName, List<PlaceholderValue> values) {
+        ClassName className = model.getClassName();
+        values.forEach(this::use);
+        if (model.isFillConstructor()) {
+            String format = values.stream().map(v -> v.getPlaceholder()).collect(Collectors.joining(", "));
+            Object[] objects = values.stream().map(v -> v.getValue()).toArray();
+            builder.add(objName + " = new $T(", className);
+            builder.add(format + ");\n", objects);
+        } else {
+            builder.addStatement(objName + " = new $T()", className);
+            for (PlaceholderValue value : values) {
+                builder.addStatement(objName + ".set" + setter(value.getName()) + "(" + value.getPlaceholder() + ")", value.getValue());
+            }
+        }
+    }
+
+    private void addNewObjectStatement(CodeBlock.Builder builder, ElementModel model, String objName, int n) {
+        List<PlaceholderValue> values = withIndex(model.getFields()).stream()
+                .map(indexed -> indexed.getValue().getValues().get(indexed.getIndex() >= n ? 1 : 0))
+                .collect(Collectors.toList());
+        addNewObjectStatement(builder, model, objName, values);
+    }
+
+    /**
+     * Records the factory a value is created with, so that it is added to the class being generated.
+     */
+    private void use(PlaceholderValue value) {
+        if (value.getFactory() != null) {
+            used.add(value.getFactory());
+        }
+    }
+
+    static String setter(String name) {
+        String s = name;
+        if (s.startsWith("is")) {
+            s = s.substring(2);
+        }
+        return s.substring(0, 1).toUpperCase() + s.substring(1);
+    }
+
+    /**
+     * @return the factories and everything they use, in the order first used
+     */
+    private Map<String, MethodSpec> factories(Set<String> methods) {
+        Map<String, MethodSpec> result = new LinkedHashMap<>();
+        Deque<String> queue = new ArrayDeque<>(methods);
+        while (! queue.isEmpty()) {
+            String method = queue.poll();
+            if (! result.containsKey(method)) {
+                Factories.Factory factory = factories.get(method, this::fork);
+                result.put(method, factory.getSpec());
+                queue.addAll(factory.getDependencies());
+            }
+        }
+        return result;
+    }
+
+    private TestGenerator fork() {
+        return new TestGenerator(options, models, graph, fixtureClasses, factories);
+    }
+
+    /**
+     * Fields that lead back to the class are left null; see {@link TypeGraph}.
+     * Of the others, those from the {@code n}th on take their second value, so that the objects of each n differ.
+     */
+    MethodSpec createFactoryFor(ClassName className, int n) {
+        ElementModel model = models.get(className);
+        List<TypeAndName> acyclic = model.getFields().stream()
+                .filter(field -> ! graph.isCyclic(className, field.getType()))
+                .collect(Collectors.toList());
+        List<PlaceholderValue> values = new ArrayList<>();
+        for (TypeAndName field : model.getFields()) {
+            int position = acyclic.indexOf(field);
+            if (position < 0) {
+                values.add(new PlaceholderValue("$L", field.getName(), null));
+            } else {
+                // with a single field, the second object takes its second value
+                boolean second = acyclic.size() > 1 ? position >= n : n > 1;
+                values.add(field.getValues().get(second ? 1 : 0));
+            }
+        }
+        CodeBlock.Builder builder = CodeBlock.builder();
+        builder.addStatement("$T obj", className);
+        addNewObjectStatement(builder, model, "obj", values);
+        builder.addStatement("return obj");
+
+        return MethodSpec.methodBuilder("create" + className.simpleName() + n)
+                .returns(className)
+                .addCode(builder.build())
+                .build();
+    }
+
+    /**
+     * Generated sources of a class, rendered, and the factories it shares through the fixtures of its package.
+     */
+    @Value
+    static class Generated {
+        List<Source> sources;
+        Map<String, MethodSpec> sharedFactories;
+        SizeStats stats;
+        Metrics.Element metrics;
+        /**
+         * Budgets the class exceeded, and what was generated instead.
+         */
+        List<String> warnings;
+    }
+
+    @Value
+    static class Source {
+        String qualifiedName;
+        String text;
+
+        static Source of(JavaFile file) {
+            String name = file.packageName.isEmpty() ? file.typeSpec.name : file.packageName + "." + file.typeSpec.name;
+            return new Source(name, file.toString());
+        }
+    }
+
+    @Value
+    static class SizeStats {
+        String className;
+        int classes;
+        int methods;
+        int bytes;
+        int largestMethod;
+
+        static SizeStats of(String className, List<TypeSpec> typeSpecs) {
+            List<MethodSpec> methods = typeSpecs.stream()
+                    .flatMap(t -> t.methodSpecs.stream())
+                    .collect(Collectors.toList());
+            return new SizeStats(className, typeSpecs.size(), methods.size(),
+                    methods.stream().mapToInt(BytecodeSize::of).sum(),
+                    methods.stream().mapToInt(BytecodeSize::of).max().orElse(0));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: ~%d bytes in %d methods (largest ~%d) across %d classes",
+                    className, bytes, methods, largestMethod, classes);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package sample;
+
+import com.squareup.javapoet.TypeName;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * A field of a target class and its test values.
+ */
+@Value
+class TypeAndName {
+    TypeName type;
+    String name;
+    List<PlaceholderValue> values;
+    /**
+     * Value drawn from a Random named random, or null when the type has none.
+     */
+    PlaceholderValue random;
+    /**
+     * Collection of as many elements as an int named size, or null when the type is not one that can be filled.
+     */
+    PlaceholderValue sized;
+    boolean included;
+
+    /**
+     * Fields ignored by equals are held at their first value.
+     */
+    List<PlaceholderValue> getTestValues() {
+        return included ? values : values.subList(0, 1);
+    }
+}
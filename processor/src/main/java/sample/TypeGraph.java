@@ -0,0 +1,121 @@
+package sample;
+
+import com.squareup.javapoet.ArrayTypeName;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.WildcardTypeName;
+
+import java.util.*;
+
+/**
+ * Target classes and the target classes their fields refer to, with the cycles among them.
+ *
+ * A factory leaves null the fields that lead back to its own class, so that creating an object of a
+ * self-referential or mutually referential class ends.
+ */
+class TypeGraph {
+    private final Map<ClassName, Set<ClassName>> edges = new HashMap<>();
+    /**
+     * Strongly connected component of each class, numbered in reverse topological order.
+     */
+    private final Map<ClassName, Integer> components = new HashMap<>();
+    private int componentCount;
+
+    TypeGraph(Map<ClassName, ElementModel> models) {
+        for (ElementModel model : models.values()) {
+            Set<ClassName> targets = new LinkedHashSet<>();
+            for (TypeAndName field : model.getFields()) {
+                referencedClasses(field.getType()).stream()
+                        .filter(models::containsKey)
+                        .forEach(targets::add);
+            }
+            edges.put(model.getClassName(), targets);
+        }
+        for (ClassName className : edges.keySet()) {
+            if (! components.containsKey(className)) {
+                connect(className);
+            }
+        }
+    }
+
+    /**
+     * Whether a field of the type leads back to an object of the class, directly or through other targets.
+     */
+    boolean isCyclic(ClassName className, TypeName fieldType) {
+        Integer component = components.get(className);
+        return component != null && referencedClasses(fieldType).stream()
+                .anyMatch(c -> component.equals(components.get(c)));
+    }
+
+    /**
+     * Tarjan's algorithm from one class, with an explicit stack so that deep models do not overflow the thread's.
+     */
+    private void connect(ClassName root) {
+        Map<ClassName, Integer> indexes = new HashMap<>();
+        Map<ClassName, Integer> lowLinks = new HashMap<>();
+        Deque<ClassName> stack = new ArrayDeque<>();
+        Set<ClassName> onStack = new HashSet<>();
+        Deque<Map.Entry<ClassName, Iterator<ClassName>>> calls = new ArrayDeque<>();
+
+        visit(root, indexes, lowLinks, stack, onStack, calls);
+        while (! calls.isEmpty()) {
+            ClassName node = calls.peek().getKey();
+            Iterator<ClassName> successors = calls.peek().getValue();
+            if (successors.hasNext()) {
+                ClassName next = successors.next();
+                if (components.containsKey(next)) {
+                    continue;
+                }
+                if (! indexes.containsKey(next)) {
+                    visit(next, indexes, lowLinks, stack, onStack, calls);
+                } else if (onStack.contains(next)) {
+                    lowLinks.put(node, Math.min(lowLinks.get(node), indexes.get(next)));
+                }
+                continue;
+            }
+            calls.pop();
+            if (lowLinks.get(node).equals(indexes.get(node))) {
+                int component = componentCount++;
+                ClassName member;
+                do {
+                    member = stack.pop();
+                    onStack.remove(member);
+                    components.put(member, component);
+                } while (! member.equals(node));
+            }
+            if (! calls.isEmpty()) {
+                ClassName caller = calls.peek().getKey();
+                lowLinks.put(caller, Math.min(lowLinks.get(caller), lowLinks.get(node)));
+            }
+        }
+    }
+
+    private void visit(ClassName node, Map<ClassName, Integer> indexes, Map<ClassName, Integer> lowLinks,
+                       Deque<ClassName> stack, Set<ClassName> onStack, Deque<Map.Entry<ClassName, Iterator<ClassName>>> calls) {
+        indexes.put(node, indexes.size());
+        lowLinks.put(node, indexes.get(node));
+        stack.push(node);
+        onStack.add(node);
+        calls.push(new AbstractMap.SimpleEntry<>(node, edges.getOrDefault(node, Collections.emptySet()).iterator()));
+    }
+
+    /**
+     * Every class named in the type, type arguments and array components included.
+     */
+    static List<ClassName> referencedClasses(TypeName type) {
+        List<ClassName> result = new ArrayList<>();
+        if (type instanceof ClassName) {
+            result.add((ClassName) type);
+        } else if (type instanceof ParameterizedTypeName) {
+            result.add(((ParameterizedTypeName) type).rawType);
+            ((ParameterizedTypeName) type).typeArguments.forEach(t -> result.addAll(referencedClasses(t)));
+        } else if (type instanceof ArrayTypeName) {
+            result.addAll(referencedClasses(((ArrayTypeName) type).componentType));
+        } else if (type instanceof WildcardTypeName) {
+            ((WildcardTypeName) type).upperBounds.forEach(t -> result.addAll(referencedClasses(t)));
+            ((WildcardTypeName) type).lowerBounds.forEach(t -> result.addAll(referencedClasses(t)));
+        }
+        return result;
+    }
+}
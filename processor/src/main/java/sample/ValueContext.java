@@ -0,0 +1,51 @@
+package sample;
+
+import com.squareup.javapoet.MethodSpec;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * What a {@link ValueProvider} can use from the processor.
+ */
+public interface ValueContext {
+
+    ProcessingEnvironment getProcessingEnvironment();
+
+    /**
+     * Seed that values which are not constants, such as dates, should be derived from, so that the generated
+     * sources are the same on every build.
+     */
+    long getSeed();
+
+    /**
+     * A value created by calling a factory method of the generated test class.
+     *
+     * @param name   field name
+     * @param method name of the factory method; the same name always means the same factory of values,
+     *               and it is numbered when a factory of a target class of the same simple name already has it
+     * @param spec   builds the factory the first time a generated class uses it, possibly on another thread
+     */
+    PlaceholderValue factory(String name, String method, Supplier<MethodSpec> spec);
+
+    /**
+     * Values of another type, such as the component type of an array.
+     */
+    List<PlaceholderValue> values(TypeMirror type, String name);
+
+    /**
+     * A random value of another type, or null when it has none.
+     *
+     * @see ValueProvider#randomValue
+     */
+    PlaceholderValue randomValue(TypeMirror type, String name);
+
+    /**
+     * A value of another type determined by the {@code int} named {@code i}, or null when it has none.
+     *
+     * @see ValueProvider#indexedValue
+     */
+    PlaceholderValue indexedValue(TypeMirror type, String name);
+}
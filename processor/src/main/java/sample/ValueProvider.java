@@ -0,0 +1,53 @@
+package sample;
+
+import javax.lang.model.type.TypeMirror;
+import java.util.List;
+
+/**
+ * Supplies the test values of fields of some types.
+ *
+ * Implementations are found with {@link java.util.ServiceLoader} on the annotation processor path, through
+ * {@code META-INF/services/sample.ValueProvider}, and take precedence over the built-in providers.
+ * {@link #supports} is asked once per erased type; the answer is cached for the rest of the compilation.
+ */
+public interface ValueProvider {
+
+    boolean supports(TypeMirror type, ValueContext context);
+
+    /**
+     * @return at least one value; values that compare equal to each other must not be repeated.
+     * Nullable types should end with null.
+     */
+    List<PlaceholderValue> values(TypeMirror type, String name, ValueContext context);
+
+    /**
+     * A value drawn from the {@link java.util.Random} named {@code random} in the generated code, for tests that
+     * need many distinct objects. Such values must not be created with factories.
+     *
+     * @return null when the type has no random values; the first of {@link #values} is used instead
+     */
+    default PlaceholderValue randomValue(TypeMirror type, String name, ValueContext context) {
+        return null;
+    }
+
+    /**
+     * A value determined by the {@code int} named {@code i} in the generated code, different for different
+     * {@code i} as far as the type allows, for tests that fill collections with many elements. Such values must not
+     * be created with factories.
+     *
+     * @return null when the type has no such values
+     */
+    default PlaceholderValue indexedValue(TypeMirror type, String name, ValueContext context) {
+        return null;
+    }
+
+    /**
+     * A collection or array of as many elements as the {@code int} named {@code size} in the generated code,
+     * for tests of how the cost of the Lombok-generated methods grows with it.
+     *
+     * @return null when the type is not a collection or its elements have no {@link #indexedValue}
+     */
+    default PlaceholderValue sizedValue(TypeMirror type, String name, ValueContext context) {
+        return null;
+    }
+}
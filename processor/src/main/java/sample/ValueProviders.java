@@ -0,0 +1,57 @@
+package sample;
+
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the {@link ValueProvider} of a type: those registered through {@link ServiceLoader} first, then the built-in ones.
+ *
+ * The provider is resolved once per erased type (declared types by qualified name, arrays by erasure,
+ * primitives by {@link TypeKind}) and cached.
+ */
+class ValueProviders {
+    private final List<ValueProvider> providers = new ArrayList<>();
+    private final Map<Object, Optional<ValueProvider>> resolved = new HashMap<>();
+    private final List<String> loaded;
+
+    ValueProviders(ClassLoader classLoader) {
+        for (ValueProvider provider : ServiceLoader.load(ValueProvider.class, classLoader)) {
+            providers.add(provider);
+        }
+        loaded = providers.stream().map(p -> p.getClass().getName()).collect(Collectors.toList());
+        providers.addAll(BuiltinValueProviders.all());
+    }
+
+    Optional<ValueProvider> get(TypeMirror type, ValueContext context) {
+        Object key = key(type, context);
+        Optional<ValueProvider> provider = resolved.get(key);
+        if (provider == null) {
+            provider = providers.stream().filter(p -> p.supports(type, context)).findFirst();
+            resolved.put(key, provider);
+        }
+        return provider;
+    }
+
+    private static Object key(TypeMirror type, ValueContext context) {
+        switch (type.getKind()) {
+            case DECLARED:
+                return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName();
+            case ARRAY:
+                return context.getProcessingEnvironment().getTypeUtils().erasure(type).toString();
+            default:
+                return type.getKind();
+        }
+    }
+
+    /**
+     * Names of the providers found through {@link ServiceLoader}.
+     */
+    @Override
+    public String toString() {
+        return loaded.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package sample;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Batch generation from class files, whose packages are enclosed by a module on JDK 9+.
+ */
+public class BatchGeneratorTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNestedClass() throws Exception {
+        // the members Lombok generates for @Value, written out
+        String text = "package batch;\n\n"
+                + "public class Outer {\n"
+                + "    public static final class Inner {\n"
+                + "        private final String name;\n\n"
+                + "        public Inner(String name) {\n"
+                + "            this.name = name;\n"
+                + "        }\n\n"
+                + "        public String getName() {\n"
+                + "            return name;\n"
+                + "        }\n\n"
+                + "        @Override\n"
+                + "        public boolean equals(Object o) {\n"
+                + "            return o instanceof Inner && ((Inner) o).canEqual(this)\n"
+                + "                    && (name == null ? ((Inner) o).name == null : name.equals(((Inner) o).name));\n"
+                + "        }\n\n"
+                + "        protected boolean canEqual(Object other) {\n"
+                + "            return other instanceof Inner;\n"
+                + "        }\n\n"
+                + "        @Override\n"
+                + "        public int hashCode() {\n"
+                + "            return 59 + (name == null ? 43 : name.hashCode());\n"
+                + "        }\n\n"
+                + "        @Override\n"
+                + "        public String toString() {\n"
+                + "            return \"Outer.Inner(name=\" + name + \")\";\n"
+                + "        }\n"
+                + "    }\n"
+                + "}\n";
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///batch/Outer.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return text;
+            }
+        };
+        File classes = folder.newFolder();
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter messages = new StringWriter();
+        Assert.assertTrue(messages.toString(), compiler.getTask(messages, null, null,
+                Arrays.asList("-proc:none", "-d", classes.getPath()), null, Collections.singletonList(file)).call());
+
+        File output = folder.newFolder();
+        Assert.assertTrue(BatchGenerator.generate(compiler, output.toPath(), Collections.singletonList(classes.toPath()),
+                Collections.emptyList(), Collections.singletonList("-A" + Options.PARALLELISM + "=1")));
+        File test = new File(output, "batch/Outer_Inner_LombokTest.java");
+        Assert.assertTrue(Arrays.toString(new File(output, "batch").list()), test.exists());
+        Assert.assertTrue(new String(Files.readAllBytes(test.toPath()), StandardCharsets.UTF_8)
+                .contains("class Outer_Inner_LombokTest"));
+    }
+}
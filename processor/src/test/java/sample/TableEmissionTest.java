@@ -0,0 +1,65 @@
+package sample;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Table emission of wide classes, whose rows make string literals of thousands of characters.
+ */
+public class TableEmissionTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testWideClassExhaustive() throws Exception {
+        assertGenerates(100, "exhaustive");
+    }
+
+    @Test
+    public void testWideClassMutation() throws Exception {
+        assertGenerates(100, "mutation");
+    }
+
+    private void assertGenerates(int fields, String combination) throws Exception {
+        StringBuilder source = new StringBuilder("package wide;\n\n@lombok.Data\npublic class Wide {\n");
+        for (int i = 0; i < fields; i++) {
+            source.append("    private Integer field").append(i).append(";\n");
+        }
+        String text = source.append("}\n").toString();
+        JavaFileObject file = new SimpleJavaFileObject(URI.create("string:///wide/Wide.java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return text;
+            }
+        };
+
+        File output = folder.newFolder();
+        List<String> options = Arrays.asList(
+                "-proc:only",
+                "-s", output.getPath(),
+                "-classpath", System.getProperty("java.class.path"),
+                "-A" + Options.EMISSION + "=table",
+                "-A" + Options.COMBINATION + "=" + combination,
+                "-A" + Options.PARALLELISM + "=1");
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter messages = new StringWriter();
+        JavaCompiler.CompilationTask task = compiler.getTask(messages, null, null, options, null, Collections.singletonList(file));
+        task.setProcessors(Collections.singletonList(new Processor()));
+
+        Assert.assertTrue(messages.toString(), task.call());
+        Assert.assertTrue(new File(output, "wide/Wide_LombokTest.java").exists());
+    }
+}
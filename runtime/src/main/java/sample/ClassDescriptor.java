@@ -0,0 +1,201 @@
+package sample;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * What {@link ContractChecker} needs to know of a Lombok class: how to create its objects, and the test values of
+ * its fields with whether equals compares them.
+ *
+ * <pre>
+ * ClassDescriptor.builder(MyData.class, MethodHandles.lookup())
+ *         .setters()
+ *         .field("name", true, () -&gt; new Object[] {"name1", "name2", null})
+ *         .build();
+ * </pre>
+ *
+ * The values are created anew for every object. The constructor or setter handles are resolved with the lookup of
+ * the first descriptor of a class and kept for every later one of the same fields in the same way, so a test can
+ * build its descriptor each time.
+ */
+public final class ClassDescriptor<T> {
+    /**
+     * Handles by class, whether the constructor takes the values, and names of the fields in order.
+     */
+    private static final Map<List<Object>, Handles> HANDLES = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final List<Field> fields;
+    private final Handles handles;
+
+    private ClassDescriptor(Class<T> type, List<Field> fields, Handles handles) {
+        this.type = type;
+        this.fields = fields;
+        this.handles = handles;
+    }
+
+    /**
+     * @param lookup of the test, so that the members of package-private classes can be reached
+     */
+    public static <T> Builder<T> builder(Class<T> type, MethodHandles.Lookup lookup) {
+        return new Builder<>(type, lookup);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * Creates an object from a value index per field.
+     */
+    T create(int[] row) {
+        Object[] values = new Object[fields.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = fields.get(i).values.get()[row[i]];
+        }
+        try {
+            return type.cast(handles.create(values));
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot create " + type.getName(), e);
+        }
+    }
+
+    static class Field {
+        final String name;
+        final boolean included;
+        final Supplier<Object[]> values;
+        final int size;
+
+        Field(String name, boolean included, Supplier<Object[]> values) {
+            this.name = name;
+            this.included = included;
+            this.values = values;
+            this.size = values.get().length;
+        }
+    }
+
+    public static final class Builder<T> {
+        private final Class<T> type;
+        private final MethodHandles.Lookup lookup;
+        private final List<Field> fields = new ArrayList<>();
+        private boolean constructor;
+
+        private Builder(Class<T> type, MethodHandles.Lookup lookup) {
+            this.type = type;
+            this.lookup = lookup;
+        }
+
+        /**
+         * Objects are created with the constructor taking every field in order.
+         */
+        public Builder<T> constructor() {
+            constructor = true;
+            return this;
+        }
+
+        /**
+         * Objects are created with the no-args constructor and a setter per field.
+         */
+        public Builder<T> setters() {
+            constructor = false;
+            return this;
+        }
+
+        /**
+         * @param included whether equals compares the field
+         * @param values   the test values, the first being the one of the base object; at least one
+         */
+        public Builder<T> field(String name, boolean included, Supplier<Object[]> values) {
+            fields.add(new Field(name, included, values));
+            return this;
+        }
+
+        public ClassDescriptor<T> build() {
+            List<String> names = fields.stream().map(field -> field.name).collect(Collectors.toList());
+            Handles handles = HANDLES.computeIfAbsent(Arrays.asList(type, constructor, names),
+                    key -> Handles.of(type, lookup, fields, constructor));
+            return new ClassDescriptor<>(type, Collections.unmodifiableList(new ArrayList<>(fields)), handles);
+        }
+    }
+
+    /**
+     * Creates objects from an array of field values.
+     */
+    private static class Handles {
+        /**
+         * (Object[])Object; the constructor, or the no-args constructor when there are setters
+         */
+        private final MethodHandle constructor;
+        /**
+         * (Object, Object)void each, or null when the constructor takes the values
+         */
+        private final MethodHandle[] setters;
+
+        private Handles(MethodHandle constructor, MethodHandle[] setters) {
+            this.constructor = constructor;
+            this.setters = setters;
+        }
+
+        static Handles of(Class<?> type, MethodHandles.Lookup lookup, List<Field> fields, boolean constructor) {
+            try {
+                Class<?>[] types = new Class<?>[fields.size()];
+                for (int i = 0; i < types.length; i++) {
+                    types[i] = type.getDeclaredField(fields.get(i).name).getType();
+                }
+                if (constructor) {
+                    MethodHandle handle = lookup.findConstructor(type, MethodType.methodType(void.class, types))
+                            .asSpreader(Object[].class, types.length)
+                            .asType(MethodType.methodType(Object.class, Object[].class));
+                    return new Handles(handle, null);
+                }
+                MethodHandle handle = MethodHandles.dropArguments(
+                        lookup.findConstructor(type, MethodType.methodType(void.class)).asType(MethodType.methodType(Object.class)),
+                        0, Object[].class);
+                MethodHandle[] setters = new MethodHandle[types.length];
+                for (int i = 0; i < setters.length; i++) {
+                    setters[i] = lookup.findVirtual(type, "set" + setter(fields.get(i).name), MethodType.methodType(void.class, types[i]))
+                            .asType(MethodType.methodType(void.class, Object.class, Object.class));
+                }
+                return new Handles(handle, setters);
+            } catch (NoSuchFieldException | NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException("Cannot create objects of " + type.getName(), e);
+            }
+        }
+
+        Object create(Object[] values) throws Throwable {
+            Object obj = constructor.invokeExact(values);
+            if (setters != null) {
+                for (int i = 0; i < setters.length; i++) {
+                    setters[i].invokeExact(obj, values[i]);
+                }
+            }
+            return obj;
+        }
+
+        /**
+         * The name Lombok gives the setter of a field, after {@code set}.
+         */
+        private static String setter(String name) {
+            String s = name;
+            if (s.startsWith("is")) {
+                s = s.substring(2);
+            }
+            return s.substring(0, 1).toUpperCase() + s.substring(1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package sample;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The checks of the generated tests, driven by a {@link ClassDescriptor} instead of emitted statement by statement.
+ *
+ * The objects compared are those of the generated tests: a base object of the first value of every field, and one
+ * object for each other value of a field, holding the first values elsewhere. Objects that differ only in fields
+ * equals does not compare are expected to be equal.
+ */
+public final class ContractChecker {
+    private ContractChecker() {
+    }
+
+    public static void checkToString(ClassDescriptor<?> descriptor) {
+        Object obj = descriptor.create(new int[descriptor.getFields().size()]);
+        if (obj.toString() == null) {
+            throw new AssertionError(descriptor.getType().getSimpleName() + ".toString() returned null");
+        }
+    }
+
+    /**
+     * Each object equals itself and the other objects of the same values in the fields equals compares,
+     * and none of the others nor null.
+     */
+    public static void checkEquals(ClassDescriptor<?> descriptor) {
+        List<int[]> rows = rows(descriptor);
+        for (int i = 0; i < rows.size(); i++) {
+            Object obj = descriptor.create(rows.get(i));
+            if (!obj.equals(obj)) {
+                throw new AssertionError(obj + " is not equal to itself");
+            }
+            if (obj.equals(null)) {
+                throw new AssertionError(obj + " is equal to null");
+            }
+            for (int j = 0; j < rows.size(); j++) {
+                Object other = descriptor.create(rows.get(j));
+                boolean expected = expectEqual(descriptor, rows.get(i), rows.get(j));
+                if (obj.equals(other) != expected) {
+                    throw new AssertionError(obj + (expected ? " is not equal to " : " is equal to ") + other);
+                }
+            }
+        }
+    }
+
+    /**
+     * Objects of the same values have the same hash code, also with the last value of every field, mostly null.
+     */
+    public static void checkHashCode(ClassDescriptor<?> descriptor) {
+        List<int[]> rows = rows(descriptor);
+        rows.add(lastValues(descriptor));
+        for (int[] row : rows) {
+            Object obj1 = descriptor.create(row);
+            Object obj2 = descriptor.create(row);
+            if (obj1.hashCode() != obj2.hashCode()) {
+                throw new AssertionError("Hash codes of " + obj1 + " differ: " + obj1.hashCode() + " and " + obj2.hashCode());
+            }
+        }
+    }
+
+    private static List<int[]> rows(ClassDescriptor<?> descriptor) {
+        List<ClassDescriptor.Field> fields = descriptor.getFields();
+        List<int[]> rows = new ArrayList<>();
+        rows.add(new int[fields.size()]);
+        for (int i = 0; i < fields.size(); i++) {
+            for (int value = 1; value < fields.get(i).size; value++) {
+                int[] row = new int[fields.size()];
+                row[i] = value;
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Whether the rows have the same values in every field equals compares.
+     */
+    private static boolean expectEqual(ClassDescriptor<?> descriptor, int[] row1, int[] row2) {
+        List<ClassDescriptor.Field> fields = descriptor.getFields();
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).included && row1[i] != row2[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] lastValues(ClassDescriptor<?> descriptor) {
+        List<ClassDescriptor.Field> fields = descriptor.getFields();
+        int[] row = new int[fields.size()];
+        for (int i = 0; i < row.length; i++) {
+            if (fields.get(i).included) {
+                row[i] = fields.get(i).size - 1;
+            }
+        }
+        return row;
+    }
+}